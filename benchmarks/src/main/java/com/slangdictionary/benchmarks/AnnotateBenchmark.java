@@ -0,0 +1,67 @@
+package com.slangdictionary.benchmarks;
+
+import com.slangdictionary.SlangDictionary;
+import com.slangdictionary.SlangMatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning chat-like text for slang words. An operation is one char of text, so the throughput
+ * score in ops/us reads as millions of chars per second (twice that in MB/s of UTF-16 text).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AnnotateBenchmark {
+    private static final int TEXT_LENGTH = 1 << 20;
+    private static final String[] FILLER = ("the quick red cat jumps over the lazy bird and then they went "
+            + "to the store hello there how are you doing today").split(" ");
+
+    @Param({"slang.txt"})
+    public String corpus;
+
+    @Param({"1", "100"})
+    public int scale;
+
+    // Share of the words of the text that are slang words
+    @Param({"0", "10"})
+    public int slangPercent;
+
+    private SlangDictionary dictionary;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        dictionary = Corpus.load(corpus, scale);
+        Corpus.buildIndexes(dictionary);
+        // The automaton is built by the first scan, keep that out of the measurement
+        dictionary.annotate("", false);
+        String[] slang = Corpus.sampleWords(dictionary, 1024);
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(TEXT_LENGTH + 64);
+        while(sb.length() < TEXT_LENGTH) {
+            sb.append(random.nextInt(100) < slangPercent ? slang[random.nextInt(slang.length)] : FILLER[random.nextInt(FILLER.length)]);
+            sb.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        text = sb.substring(0, TEXT_LENGTH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_LENGTH)
+    public List<SlangMatch> annotate() {
+        return dictionary.annotate(text, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_LENGTH)
+    public List<SlangMatch> annotateIgnoreCase() {
+        return dictionary.annotate(text, true);
+    }
+}
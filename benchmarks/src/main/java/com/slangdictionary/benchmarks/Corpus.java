@@ -0,0 +1,92 @@
+package com.slangdictionary.benchmarks;
+
+import com.slangdictionary.SlangDictionary;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Slang files for the benchmarks: the real one, or a synthetic copy scaled up from it.
+ *
+ * A corpus scaled n times holds the source file n times over. The first copy is the source itself,
+ * in copy k every slang word gets the suffix "_k" and keeps its definitions, so the definition
+ * vocabulary stays realistic and a keyword matches n times as many words.
+ * Scaled files are generated once into the temp directory and reused by later forks and runs.
+ */
+public final class Corpus {
+    private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "slang-dictionary-benchmarks");
+
+    private Corpus() {
+    }
+
+    public static synchronized Path scaled(String source, int scale) throws IOException {
+        Path sourcePath = Paths.get(source);
+        if(!Files.exists(sourcePath)) {
+            throw new FileNotFoundException(sourcePath.toAbsolutePath() + " (run the benchmarks from the repository root)");
+        }
+        if(scale == 1) {
+            return sourcePath;
+        }
+        Files.createDirectories(DIRECTORY);
+        Path target = DIRECTORY.resolve(sourcePath.getFileName() + "-x" + scale);
+        if(Files.exists(target) && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(sourcePath)) > 0) {
+            return target;
+        }
+
+        List<String> lines = Files.readAllLines(sourcePath, StandardCharsets.UTF_8);
+        Path temp = DIRECTORY.resolve(target.getFileName() + ".tmp");
+        try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for(int copy = 0; copy < scale; copy++) {
+                for(String line : lines) {
+                    int separator = line.indexOf('`');
+                    if(copy == 0) {
+                        writer.write(line);
+                    } else if(separator > 0) {
+                        writer.write(line, 0, separator);
+                        writer.write("_" + copy);
+                        writer.write(line, separator, line.length() - separator);
+                    } else {
+                        continue;
+                    }
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    /**
+     * A dictionary loaded from the corpus, with its indexes built. It is not saved anywhere.
+     */
+    public static SlangDictionary load(String source, int scale) throws IOException {
+        SlangDictionary dictionary = new SlangDictionary();
+        dictionary.loadDictionaryFromFile(scaled(source, scale).toString());
+        buildIndexes(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Indexes are built lazily by the first query, run one so that it is not part of a measurement
+     */
+    public static void buildIndexes(SlangDictionary dictionary) {
+        dictionary.autocomplete("a", 1);
+        dictionary.clearCache();
+    }
+
+    /**
+     * count slang words of the dictionary, picked with a fixed seed so that every run looks up the same ones
+     */
+    public static String[] sampleWords(SlangDictionary dictionary, int count) {
+        List<String> words = new ArrayList<>(dictionary.getDictionary().keySet());
+        Collections.sort(words);
+        Random random = new Random(42);
+        String[] sample = new String[count];
+        for(int i = 0; i < count; i++) {
+            sample[i] = words.get(random.nextInt(words.size()));
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,92 @@
+package com.slangdictionary.benchmarks;
+
+import com.slangdictionary.SlangDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Start-up costs: parsing a slang text file, building the indexes, and loading the saved
+ * original dictionary plus the user's changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LoadBenchmark {
+    // One word in CHANGE_EVERY gets edited, added to or deleted before the changes are saved
+    private static final int CHANGE_EVERY = 100;
+
+    @Param({"slang.txt"})
+    public String corpus;
+
+    // 100x (about 760k words) is the largest that fits the forked 2 GB heap, see the pom for more
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Path file;
+    private Path dataDirectory;
+
+    @Setup(Level.Trial)
+    public void save() throws IOException {
+        file = Corpus.scaled(corpus, scale);
+        dataDirectory = Files.createTempDirectory("slang-dictionary-");
+        SlangDictionary dictionary = new SlangDictionary(dataDirectory);
+        dictionary.loadOriginalFromFile(file.toString());
+        dictionary.saveOriginalDictionary();
+        dictionary.loadOriginalDictionary();
+        dictionary.loadDictionary();
+        String[] words = Corpus.sampleWords(dictionary, dictionary.getTotalWords() / CHANGE_EVERY);
+        for(int i = 0; i < words.length; i++) {
+            switch(i % 3) {
+                case 0 -> dictionary.editDefinition(words[i], 0, "Edited " + i);
+                case 1 -> dictionary.addDefinitionToWord(words[i], "Added " + i);
+                default -> dictionary.deleteSlangWord(words[i]);
+            }
+            dictionary.addSlangWord("NEW_" + i, "New " + i);
+        }
+        dictionary.saveDictionary();
+        dictionary.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try(Stream<Path> files = Files.walk(dataDirectory)) {
+            for(Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public SlangDictionary loadDictionaryFromFile() {
+        SlangDictionary dictionary = new SlangDictionary();
+        dictionary.loadDictionaryFromFile(file.toString());
+        return dictionary;
+    }
+
+    @Benchmark
+    public SlangDictionary loadDictionaryFromFileAndIndex() {
+        SlangDictionary dictionary = loadDictionaryFromFile();
+        Corpus.buildIndexes(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * What the application does on start-up: map the saved original dictionary and apply the saved changes
+     */
+    @Benchmark
+    public SlangDictionary loadDictionary() {
+        SlangDictionary dictionary = new SlangDictionary(dataDirectory);
+        dictionary.loadOriginalDictionary();
+        dictionary.loadDictionary();
+        dictionary.close();
+        return dictionary;
+    }
+}
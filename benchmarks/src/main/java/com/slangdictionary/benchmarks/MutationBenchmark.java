@@ -0,0 +1,96 @@
+package com.slangdictionary.benchmarks;
+
+import com.slangdictionary.SlangDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Edits of a loaded dictionary, each keeping the indexes up to date. With journaled set, the
+ * dictionary is loaded the way the application does it, so every edit is also appended to the journal.
+ * The dictionary is reset before every iteration so that edits do not pile up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MutationBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"slang.txt"})
+    public String corpus;
+
+    // 100x (about 760k words) is the largest that fits the forked 2 GB heap, see the pom for more
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private SlangDictionary dictionary;
+    private Path dataDirectory;
+    private String[] words;
+    private int next;
+    private long added;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        if(journaled) {
+            dataDirectory = Files.createTempDirectory("slang-dictionary-");
+            dictionary = new SlangDictionary(dataDirectory);
+            dictionary.loadOriginalFromFile(Corpus.scaled(corpus, scale).toString());
+            dictionary.saveOriginalDictionary();
+            dictionary.loadOriginalDictionary();
+            dictionary.loadDictionary();
+            Corpus.buildIndexes(dictionary);
+        } else {
+            dictionary = Corpus.load(corpus, scale);
+        }
+        words = Corpus.sampleWords(dictionary, SAMPLE_SIZE);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        dictionary.resetDictionary();
+        Corpus.buildIndexes(dictionary);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        dictionary.close();
+        if(dataDirectory == null) {
+            return;
+        }
+        try(Stream<Path> files = Files.walk(dataDirectory)) {
+            for(Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * A new word, then deleting it again
+     */
+    @Benchmark
+    public boolean addAndDeleteSlangWord() {
+        String word = "BENCH_" + added++;
+        return dictionary.addSlangWord(word, "Benchmark definition") & dictionary.deleteSlangWord(word);
+    }
+
+    @Benchmark
+    public boolean addDefinitionToWord() {
+        return dictionary.addDefinitionToWord(words[next++ & (SAMPLE_SIZE - 1)], "Benchmark definition");
+    }
+
+    @Benchmark
+    public boolean editDefinition() {
+        int i = next++;
+        return dictionary.editDefinition(words[i & (SAMPLE_SIZE - 1)], 0, "Benchmark definition " + (i & 1));
+    }
+}
@@ -0,0 +1,114 @@
+package com.slangdictionary.benchmarks;
+
+import com.slangdictionary.SlangDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups against a loaded dictionary, reported as throughput and as a latency distribution.
+ * Searches by definition are measured both against the indexes, with the result cache cleared
+ * first, and as cache hits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchBenchmark {
+    private static final int SAMPLE_SIZE = 1024;
+
+    @Param({"slang.txt"})
+    public String corpus;
+
+    // 100x (about 760k words) is the largest that fits the forked 2 GB heap, see the pom for more
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    // Matches one definition of the source file
+    @Param({"toronto"})
+    public String selectiveKeyword;
+
+    // Matches about one in nine definitions of the source file
+    @Param({"you"})
+    public String broadKeyword;
+
+    private SlangDictionary dictionary;
+    private String[] words;
+    private List<String> batch;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        dictionary = Corpus.load(corpus, scale);
+        words = Corpus.sampleWords(dictionary, SAMPLE_SIZE);
+        batch = Arrays.asList(words);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        dictionary.clearHistory();
+    }
+
+    @Benchmark
+    public List<String> searchBySlangWord() {
+        return dictionary.searchBySlangWord(words[next++ & (SAMPLE_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public List<String> searchBySlangWordMissing() {
+        return dictionary.searchBySlangWord("NOT A SLANG WORD");
+    }
+
+    /**
+     * The whole sample of words one by one, to compare with lookupAll
+     */
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public int searchBySlangWordLoop() {
+        int found = 0;
+        for(String word : words) {
+            found += dictionary.searchBySlangWord(word).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public Map<String, List<String>> lookupAll() {
+        return dictionary.lookupAll(batch, false, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public Map<String, List<String>> lookupAllIgnoreCase() {
+        return dictionary.lookupAll(batch, true, false);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> searchByDefinitionSelective() {
+        dictionary.clearCache();
+        return dictionary.searchByDefinition(selectiveKeyword);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> searchByDefinitionBroad() {
+        dictionary.clearCache();
+        return dictionary.searchByDefinition(broadKeyword);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> searchByDefinitionCached() {
+        return dictionary.searchByDefinition(broadKeyword);
+    }
+
+    @Benchmark
+    public String getRandomSlangWord() {
+        return dictionary.getRandomSlangWord();
+    }
+}
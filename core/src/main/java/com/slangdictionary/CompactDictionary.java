@@ -0,0 +1,230 @@
+package com.slangdictionary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Immutable dictionary packed into a handful of arrays instead of a String and an ArrayList per word.
+ *
+ * Every distinct definition is stored once, in one shared byte array: Latin-1 text as one byte
+ * per char, anything else as two. Each word only keeps the ids of its definitions, so a definition
+ * shared by many words ("Laughing out loud") costs a single copy. Definitions are decoded on
+ * every read and not kept, so the map stays this small however much of it has been read.
+ * Definition lists are unmodifiable. Safe to read from any thread.
+ */
+public class CompactDictionary extends AbstractMap<String, List<String>> {
+    private final String[] keys;
+    private final int[] table;
+    private final int[] firstDefinition;
+    private final int[] definitionIds;
+    private final byte[] pool;
+    private final int[] poolOffsets;
+    private final BitSet wide;
+
+    private CompactDictionary(String[] keys, int[] table, int[] firstDefinition, int[] definitionIds,
+                              byte[] pool, int[] poolOffsets, BitSet wide) {
+        this.keys = keys;
+        this.table = table;
+        this.firstDefinition = firstDefinition;
+        this.definitionIds = definitionIds;
+        this.pool = pool;
+        this.poolOffsets = poolOffsets;
+        this.wide = wide;
+    }
+
+    /**
+     * Pack a dictionary, keeping its iteration order
+     */
+    public static CompactDictionary copyOf(Map<String, List<String>> dictionary) {
+        int count = dictionary.size();
+        String[] keys = new String[count];
+        int[] firstDefinition = new int[count + 1];
+        int definitionCount = 0;
+        for(List<String> definitions : dictionary.values()) {
+            definitionCount += definitions.size();
+        }
+        int[] definitionIds = new int[definitionCount];
+
+        HashMap<String, Integer> ids = new HashMap<>();
+        Pool pool = new Pool();
+        int entry = 0;
+        int next = 0;
+        for(Map.Entry<String, List<String>> e : dictionary.entrySet()) {
+            keys[entry] = e.getKey();
+            firstDefinition[entry] = next;
+            for(String definition : e.getValue()) {
+                Integer id = ids.get(definition);
+                if(id == null) {
+                    id = pool.add(definition);
+                    ids.put(definition, id);
+                }
+                definitionIds[next++] = id;
+            }
+            entry++;
+        }
+        firstDefinition[count] = next;
+
+        int[] table = new int[tableSize(count)];
+        int mask = table.length - 1;
+        for(int i = 0; i < count; i++) {
+            int slot = DictionaryFile.spread(keys[i].hashCode()) & mask;
+            while(table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return new CompactDictionary(keys, table, firstDefinition, definitionIds,
+                pool.bytes(), pool.offsets(), pool.wide);
+    }
+
+    /**
+     * Number of distinct definitions in the pool
+     */
+    public int getDefinitionPoolSize() {
+        return poolOffsets.length - 1;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if(!(key instanceof String)) {
+            return null;
+        }
+        int entry = find((String) key);
+        return entry >= 0 ? value(entry) : null;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, List<String>> next() {
+                        if(next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int entry = next++;
+                        return new SimpleImmutableEntry<>(keys[entry], value(entry));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    private int find(String key) {
+        int mask = table.length - 1;
+        int slot = DictionaryFile.spread(key.hashCode()) & mask;
+        while(true) {
+            int entry = table[slot] - 1;
+            if(entry < 0) {
+                return -1;
+            }
+            if(keys[entry].equals(key)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private List<String> value(int entry) {
+        String[] definitions = new String[firstDefinition[entry + 1] - firstDefinition[entry]];
+        for(int d = 0; d < definitions.length; d++) {
+            definitions[d] = definition(definitionIds[firstDefinition[entry] + d]);
+        }
+        return List.of(definitions);
+    }
+
+    private String definition(int id) {
+        int start = poolOffsets[id];
+        int length = poolOffsets[id + 1] - start;
+        if(!wide.get(id)) {
+            return new String(pool, start, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length / 2];
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ((pool[start + 2 * i] & 0xFF) << 8 | (pool[start + 2 * i + 1] & 0xFF));
+        }
+        return new String(chars);
+    }
+
+    private static int tableSize(int count) {
+        int size = 16;
+        while(size < count * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Growing byte array the definitions are appended to, trimmed once the dictionary is built
+     */
+    private static final class Pool {
+        private byte[] bytes = new byte[1 << 12];
+        private int[] offsets = new int[1 << 8];
+        private final BitSet wide = new BitSet();
+        private int length;
+        private int count;
+
+        int add(String text) {
+            boolean latin1 = true;
+            for(int i = 0; i < text.length() && latin1; i++) {
+                latin1 = text.charAt(i) <= 0xFF;
+            }
+            long size = latin1 ? text.length() : 2L * text.length();
+            if(length + size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Definitions too large for a compact dictionary");
+            }
+            if(length + size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(length + size, 2L * bytes.length)));
+            }
+            if(count + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            for(int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if(latin1) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    bytes[length++] = (byte) (c >>> 8);
+                    bytes[length++] = (byte) c;
+                }
+            }
+            if(!latin1) {
+                wide.set(count);
+            }
+            offsets[++count] = length;
+            return count - 1;
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        int[] offsets() {
+            return Arrays.copyOf(offsets, count + 1);
+        }
+    }
+}
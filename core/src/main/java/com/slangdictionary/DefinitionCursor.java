@@ -0,0 +1,117 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lazy results of a definition search.
+ * The candidate words come from the indexes when the search is opened, each one is only
+ * checked against its definitions when the caller asks for more results, so the cost of
+ * a page does not depend on the total number of hits.
+ * A cursor is meant for one thread at a time; edits made while it is open may or may not show up.
+ */
+public class DefinitionCursor implements Iterator<Map.Entry<String, List<String>>> {
+    private final Map<String, List<String>> dictionary;
+    private final String needle;
+    private final Iterator<String> candidates;
+    private final ArrayDeque<Map.Entry<String, List<String>>> carried;
+    private final Set<String> excluded;
+    private Map.Entry<String, List<String>> next;
+    private int returned;
+
+    DefinitionCursor(Map<String, List<String>> dictionary, String needle, Collection<String> candidates) {
+        this(dictionary, needle, candidates, Collections.emptyList());
+    }
+
+    /**
+     * A cursor that hands out first the given hits, then every other hit
+     */
+    DefinitionCursor(Map<String, List<String>> dictionary, String needle, Collection<String> candidates,
+                     List<Map.Entry<String, List<String>>> first) {
+        this.dictionary = dictionary;
+        this.needle = needle;
+        this.candidates = candidates.iterator();
+        this.carried = new ArrayDeque<>(first);
+        this.excluded = new HashSet<>();
+        for(Map.Entry<String, List<String>> entry : first) {
+            excluded.add(entry.getKey());
+        }
+    }
+
+    /**
+     * Stops with a CancellationException when the calling thread is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        if(next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Map.Entry<String, List<String>> next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<String, List<String>> current = next;
+        next = null;
+        returned++;
+        return current;
+    }
+
+    /**
+     * Up to limit more results, fewer only at the end.
+     * A cancelled page loses nothing, its results come first on the next call,
+     * which waits for the cancelled one to give up.
+     */
+    public synchronized List<Map.Entry<String, List<String>>> nextPage(int limit) {
+        List<Map.Entry<String, List<String>>> page = new ArrayList<>(Math.min(limit, 256));
+        try {
+            while(page.size() < limit && hasNext()) {
+                page.add(next());
+            }
+        } catch (CancellationException e) {
+            returned -= page.size();
+            for(int i = page.size() - 1; i >= 0; i--) {
+                carried.addFirst(page.get(i));
+            }
+            throw e;
+        }
+        return page;
+    }
+
+    /**
+     * Number of results handed out so far
+     */
+    public int getReturned() {
+        return returned;
+    }
+
+    private Map.Entry<String, List<String>> advance() {
+        if(!carried.isEmpty()) {
+            return carried.pollFirst();
+        }
+        Thread thread = Thread.currentThread();
+        while(candidates.hasNext()) {
+            if(thread.isInterrupted()) {
+                throw new CancellationException("Search cancelled");
+            }
+            String word = candidates.next();
+            if(excluded.contains(word)) {
+                continue;
+            }
+            List<String> defs = dictionary.get(word);
+            if(defs == null) {
+                // Deleted since the search was opened
+                continue;
+            }
+            for(String def : defs) {
+                if(def.toLowerCase().contains(needle)) {
+                    return new AbstractMap.SimpleImmutableEntry<>(word, defs);
+                }
+            }
+        }
+        return null;
+    }
+}
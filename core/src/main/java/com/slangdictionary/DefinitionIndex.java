@@ -0,0 +1,152 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Inverted index from normalized definition tokens to slang words.
+ * Also counts indexed words and their tokens, for relevance ranking.
+ */
+public class DefinitionIndex implements DictionaryIndex {
+    private final TreeMap<String, Set<String>> postings;
+    private int documents;
+    private long totalTokens;
+
+    public DefinitionIndex() {
+        this.postings = new TreeMap<>();
+    }
+
+    /**
+     * Index all definitions of a slang word
+     */
+    @Override
+    public void add(String word, List<String> definitions) {
+        documents++;
+        for(String def : definitions) {
+            for(String token : tokenize(def.toLowerCase())) {
+                postings.computeIfAbsent(token, t -> new HashSet<>()).add(word);
+                totalTokens++;
+            }
+        }
+    }
+
+    /**
+     * Remove a slang word from the postings of the given definitions
+     */
+    @Override
+    public void remove(String word, List<String> definitions) {
+        documents--;
+        for(String def : definitions) {
+            for(String token : tokenize(def.toLowerCase())) {
+                totalTokens--;
+                Set<String> words = postings.get(token);
+                if(words != null) {
+                    words.remove(word);
+                    if(words.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from scratch
+     */
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        postings.clear();
+        documents = 0;
+        totalTokens = 0;
+        for(Map.Entry<String, List<String>> entry : dictionary.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Slang words whose definitions may contain the lowercased keyword.
+     * Every real match is included, callers still have to verify each candidate.
+     * Returns null when the keyword has no letters or digits to narrow on.
+     */
+    public Set<String> candidates(String needle) {
+        Set<String> result = null;
+        int i = 0;
+        int length = needle.length();
+        while(i < length) {
+            if(!Character.isLetterOrDigit(needle.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while(i < length && Character.isLetterOrDigit(needle.charAt(i))) {
+                i++;
+            }
+            String token = needle.substring(start, i);
+
+            // A token cut by the keyword edges may only be part of a definition token
+            Set<String> words = lookup(token, start > 0, i < length);
+            if(result == null) {
+                result = words;
+            } else {
+                result.retainAll(words);
+            }
+            if(result.isEmpty()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private Set<String> lookup(String token, boolean boundedLeft, boolean boundedRight) {
+        Set<String> words = new HashSet<>();
+        if(boundedLeft && boundedRight) {
+            words.addAll(postings.getOrDefault(token, Collections.emptySet()));
+        } else if(boundedLeft) {
+            for(Set<String> posting : postings.subMap(token, token + Character.MAX_VALUE).values()) {
+                words.addAll(posting);
+            }
+        } else {
+            for(Map.Entry<String, Set<String>> entry : postings.entrySet()) {
+                String indexed = entry.getKey();
+                boolean matches = boundedRight ? indexed.endsWith(token) : indexed.contains(token);
+                if(matches) {
+                    words.addAll(entry.getValue());
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Ranker for a lowercased keyword, with document frequencies as of now
+     */
+    public DefinitionRanker ranker(String needle) {
+        List<String> tokens = tokenize(needle);
+        int[] frequency = new int[tokens.size()];
+        for(int i = 0; i < frequency.length; i++) {
+            frequency[i] = postings.getOrDefault(tokens.get(i), Collections.emptySet()).size();
+        }
+        double averageLength = documents == 0 ? 0 : (double) totalTokens / documents;
+        return new DefinitionRanker(needle, tokens, frequency, documents, averageLength);
+    }
+
+    /**
+     * Split lowercased text into runs of letters and digits
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = text.length();
+        while(i < length) {
+            if(!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while(i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            tokens.add(text.substring(start, i));
+        }
+        return tokens;
+    }
+}
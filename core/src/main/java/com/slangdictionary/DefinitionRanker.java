@@ -0,0 +1,114 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * BM25 relevance of definition search hits.
+ * Each slang word is a document made of the tokens of all its definitions. A token that
+ * only starts with a query token counts as half a hit, and a definition that equals or
+ * starts with the whole keyword earns a bonus on top.
+ */
+public class DefinitionRanker {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final double EXACT_DEFINITION_BONUS = 3.0;
+    private static final double PREFIX_DEFINITION_BONUS = 1.0;
+
+    private final String needle;
+    private final String[] queryTokens;
+    private final double[] idf;
+    private final double averageLength;
+
+    /**
+     * documentFrequency[i] is the number of slang words with queryTokens[i] in a definition
+     */
+    DefinitionRanker(String needle, List<String> queryTokens, int[] documentFrequency, int documents, double averageLength) {
+        this.needle = needle.trim();
+        this.queryTokens = queryTokens.toArray(new String[0]);
+        this.idf = new double[this.queryTokens.length];
+        for(int i = 0; i < idf.length; i++) {
+            double df = documentFrequency[i];
+            idf[i] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+        this.averageLength = Math.max(1.0, averageLength);
+    }
+
+    /**
+     * Score the definitions of one hit, higher is more relevant
+     */
+    public double score(List<String> definitions) {
+        double[] tf = new double[queryTokens.length];
+        int length = 0;
+        double bonus = 0;
+        for(String def : definitions) {
+            String lower = def.toLowerCase();
+            String trimmed = lower.trim();
+            if(trimmed.equals(needle)) {
+                bonus = Math.max(bonus, EXACT_DEFINITION_BONUS);
+            } else if(trimmed.startsWith(needle)) {
+                bonus = Math.max(bonus, PREFIX_DEFINITION_BONUS);
+            }
+            for(String token : DefinitionIndex.tokenize(lower)) {
+                length++;
+                for(int q = 0; q < queryTokens.length; q++) {
+                    if(token.equals(queryTokens[q])) {
+                        tf[q] += 1;
+                    } else if(token.startsWith(queryTokens[q])) {
+                        tf[q] += PREFIX_WEIGHT;
+                    }
+                }
+            }
+        }
+
+        double norm = K1 * (1 - B + B * length / averageLength);
+        double score = bonus;
+        for(int q = 0; q < queryTokens.length; q++) {
+            if(tf[q] > 0) {
+                score += idf[q] * tf[q] * (K1 + 1) / (tf[q] + norm);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The limit best hits, best first, keeping only limit entries in a heap while scanning.
+     * Ties go to the alphabetically first slang word.
+     */
+    public List<Map.Entry<String, List<String>>> top(Iterator<Map.Entry<String, List<String>>> hits, int limit) {
+        if(limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Worst of the kept hits on top, so it is the one pushed out
+        Comparator<Scored> order = Comparator.comparingDouble((Scored s) -> s.score)
+                .thenComparing((Scored s) -> s.entry.getKey(), Comparator.reverseOrder());
+        PriorityQueue<Scored> heap = new PriorityQueue<>(limit + 1, order);
+        while(hits.hasNext()) {
+            Map.Entry<String, List<String>> entry = hits.next();
+            Scored scored = new Scored(entry, score(entry.getValue()));
+            if(heap.size() < limit) {
+                heap.add(scored);
+            } else if(order.compare(scored, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+
+        List<Map.Entry<String, List<String>>> best = new ArrayList<>(heap.size());
+        while(!heap.isEmpty()) {
+            best.add(heap.poll().entry);
+        }
+        Collections.reverse(best);
+        return best;
+    }
+
+    private static final class Scored {
+        private final Map.Entry<String, List<String>> entry;
+        private final double score;
+
+        Scored(Map.Entry<String, List<String>> entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
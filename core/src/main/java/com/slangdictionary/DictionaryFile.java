@@ -0,0 +1,219 @@
+package com.slangdictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary dictionary file that is read through a memory map.
+ *
+ * Layout (big-endian):
+ *   header      magic, version, entry count, hash table size and the offsets of the sections below
+ *   entries     per slang word: key offset, key length, first definition, definition count
+ *   definitions per definition: offset, length
+ *   hash table  entry index + 1 per slot (0 = empty), linear probing on String.hashCode
+ *   string pool UTF-8 bytes of every key and of every distinct definition,
+ *               definitions repeated across words all point at the same bytes
+ */
+public final class DictionaryFile {
+    static final int MAGIC = 0x534C4458; // "SLDX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 16;
+    static final int DEFINITION_SIZE = 8;
+
+    private DictionaryFile() {
+    }
+
+    /**
+     * Write the dictionary to a temporary file, fsync it, then move it over the target and fsync
+     * the directory, so once this returns the file survives a crash whole or not at all
+     */
+    public static void write(Map<String, List<String>> dictionary, Path path) throws IOException {
+        int count = dictionary.size();
+        int[] hashes = new int[count];
+        int[] keyOffsets = new int[count];
+        int[] keyLengths = new int[count];
+        int[][] definitionOffsets = new int[count][];
+        int[][] definitionLengths = new int[count][];
+        List<byte[]> pool = new ArrayList<>();
+        HashMap<String, int[]> pooled = new HashMap<>();
+        int definitionCount = 0;
+        long poolSize = 0;
+
+        int i = 0;
+        for(Map.Entry<String, List<String>> entry : dictionary.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            hashes[i] = entry.getKey().hashCode();
+            keyOffsets[i] = (int) Math.min(poolSize, Integer.MAX_VALUE);
+            keyLengths[i] = key.length;
+            pool.add(key);
+            poolSize += key.length;
+            List<String> defs = entry.getValue();
+            definitionOffsets[i] = new int[defs.size()];
+            definitionLengths[i] = new int[defs.size()];
+            for(int d = 0; d < defs.size(); d++) {
+                // Offset and length of the definition's bytes, written out only the first time it is seen
+                int[] bytes = pooled.get(defs.get(d));
+                if(bytes == null) {
+                    byte[] def = defs.get(d).getBytes(StandardCharsets.UTF_8);
+                    bytes = new int[] {(int) Math.min(poolSize, Integer.MAX_VALUE), def.length};
+                    pooled.put(defs.get(d), bytes);
+                    pool.add(def);
+                    poolSize += def.length;
+                }
+                definitionOffsets[i][d] = bytes[0];
+                definitionLengths[i][d] = bytes[1];
+            }
+            definitionCount += defs.size();
+            i++;
+        }
+
+        int tableSize = tableSize(count);
+        long entriesOffset = HEADER_SIZE;
+        long definitionsOffset = entriesOffset + (long) count * ENTRY_SIZE;
+        long hashOffset = definitionsOffset + (long) definitionCount * DEFINITION_SIZE;
+        long poolOffset = hashOffset + (long) tableSize * Integer.BYTES;
+        if(poolOffset + poolSize > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary too large for a single mapped file");
+        }
+
+        int[] table = new int[tableSize];
+        for(int e = 0; e < count; e++) {
+            int slot = spread(hashes[e]) & (tableSize - 1);
+            while(table[slot] != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            table[slot] = e + 1;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(tableSize);
+            out.writeInt((int) entriesOffset);
+            out.writeInt((int) definitionsOffset);
+            out.writeInt((int) hashOffset);
+            out.writeInt((int) poolOffset);
+
+            int firstDefinition = 0;
+            for(int e = 0; e < count; e++) {
+                out.writeInt(keyOffsets[e]);
+                out.writeInt(keyLengths[e]);
+                out.writeInt(firstDefinition);
+                out.writeInt(definitionOffsets[e].length);
+                firstDefinition += definitionOffsets[e].length;
+            }
+
+            for(int e = 0; e < count; e++) {
+                for(int d = 0; d < definitionOffsets[e].length; d++) {
+                    out.writeInt(definitionOffsets[e][d]);
+                    out.writeInt(definitionLengths[e][d]);
+                }
+            }
+
+            for(int slot : table) {
+                out.writeInt(slot);
+            }
+
+            for(byte[] bytes : pool) {
+                out.write(bytes);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(path);
+    }
+
+    /**
+     * Fsync the directory holding a file, making a rename or creation of the file durable.
+     * Some platforms (Windows) cannot open a directory for this, there it is left to the file system.
+     */
+    static void syncDirectory(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if(directory == null) {
+            return;
+        }
+        try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException | UnsupportedOperationException e) {
+            // Directories cannot be opened here
+        }
+    }
+
+    /**
+     * Map a dictionary file, only the header is read up front.
+     * The mapping lives until the view is garbage collected, and on some platforms (Windows)
+     * the file cannot be replaced meanwhile, so only map files that are never rewritten.
+     */
+    public static MappedDictionary open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a dictionary file: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return view(buffer, path);
+    }
+
+    /**
+     * Read a small dictionary file onto the heap, leaving nothing open on the file
+     */
+    public static MappedDictionary read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if(bytes.length < HEADER_SIZE) {
+            throw new IOException("Not a dictionary file: " + path);
+        }
+        return view(ByteBuffer.wrap(bytes), path);
+    }
+
+    private static MappedDictionary view(ByteBuffer buffer, Path path) throws IOException {
+        if(buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file: " + path);
+        }
+        if(buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary file version " + buffer.getInt(4));
+        }
+        return new MappedDictionary(buffer);
+    }
+
+    /**
+     * Read a dictionary written by the old ObjectOutputStream format
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, List<String>> readLegacy(Path path) throws IOException {
+        try(ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return (Map<String, List<String>>) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid legacy dictionary file: " + path, e);
+        }
+    }
+
+    static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSize(int count) {
+        int size = 16;
+        while(size < count * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    static String decode(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
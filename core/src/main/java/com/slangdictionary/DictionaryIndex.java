@@ -0,0 +1,42 @@
+package com.slangdictionary;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary index kept in sync with the slang dictionary
+ */
+public interface DictionaryIndex {
+
+    /**
+     * Index a slang word with its full list of definitions
+     */
+    void add(String word, List<String> definitions);
+
+    /**
+     * Drop a slang word, given the definitions it was indexed with
+     */
+    void remove(String word, List<String> definitions);
+
+    /**
+     * Reindex a slang word whose definitions changed; indexes on the word alone have nothing to do
+     */
+    default void update(String word, List<String> oldDefinitions, List<String> newDefinitions) {
+        remove(word, oldDefinitions);
+        add(word, newDefinitions);
+    }
+
+    /**
+     * Index a batch of new slang words, for indexes that can take them in cheaper than one by one
+     */
+    default void addAll(Map<String, List<String>> entries) {
+        for(Map.Entry<String, List<String>> entry : entries.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Rebuild the index from scratch
+     */
+    void rebuild(Map<String, List<String>> dictionary);
+}
@@ -0,0 +1,366 @@
+package com.slangdictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of dictionary changes.
+ *
+ * Every record holds the full state of one word (or a reset), so replaying a record twice is harmless.
+ * Records are framed as [length][payload][crc32], strings in them as an int length and UTF-8 bytes
+ * (records of older versions used modified UTF-8 with a 2-byte length, and are still read).
+ * Replay stops at the first record that does not frame, check or apply, and the file is cut there,
+ * so a torn or zero-filled tail is dropped.
+ *
+ * Appends only go to memory. A writer then calls commit, which returns once its records are
+ * fsynced: the first writer to get there writes and fsyncs everything appended so far, so writers
+ * committing at the same time share one fsync (group commit).
+ */
+public class DictionaryJournal implements Closeable {
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte RESET = 3;
+    private static final byte PUT_UTF8 = 4;
+    private static final byte DELETE_UTF8 = 5;
+    private static final int RECORD_OVERHEAD = Integer.BYTES * 2;
+
+    private final Path path;
+    private final Path compactingPath;
+    private FileChannel channel;
+    private final ByteArrayOutputStream pending;
+    private long size;
+    private long appended;
+    private long durable;
+    private final Object flushLock;
+    private final ExecutorService compactor;
+    private volatile Future<Void> compaction;
+
+    private DictionaryJournal(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.compactingPath = compactingPath(path);
+        this.channel = channel;
+        this.pending = new ByteArrayOutputStream();
+        this.size = channel.size();
+        this.flushLock = new Object();
+        this.compactor = Executors.newSingleThreadExecutor(daemon("journal-compactor"));
+    }
+
+    /**
+     * Replay any journal left behind onto the dictionary, then open it for appending
+     */
+    public static DictionaryJournal open(Path path, OverlayDictionary dictionary) throws IOException {
+        Path compacting = compactingPath(path);
+        if(Files.exists(compacting)) {
+            // A compaction did not finish, its records are still needed
+            replay(compacting, dictionary);
+        }
+        long valid = Files.exists(path) ? replay(path, dictionary) : 0;
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if(channel.size() > valid) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return new DictionaryJournal(path, channel);
+    }
+
+    /**
+     * Apply the records of a journal file, returns the length of its valid prefix.
+     * A length that does not fit in what is left of the file (or is 0, which would pass the
+     * checksum of a zero-filled tail), a bad checksum or a payload that does not parse all end it.
+     * Bounding the length by the file size also bounds what a garbage length can allocate.
+     */
+    static long replay(Path path, OverlayDictionary dictionary) throws IOException {
+        long remaining = Files.size(path);
+        long valid = 0;
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while(remaining >= RECORD_OVERHEAD) {
+                int length = in.readInt();
+                if(length <= 0 || length > remaining - RECORD_OVERHEAD) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if(in.readInt() != checksum(payload) || !apply(payload, dictionary)) {
+                    break;
+                }
+                valid += RECORD_OVERHEAD + length;
+                remaining -= RECORD_OVERHEAD + length;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Apply one record, parsed in full first so a bad one changes nothing; false if it does not parse
+     */
+    private static boolean apply(byte[] payload, OverlayDictionary dictionary) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte op = in.readByte();
+            if(op == RESET) {
+                if(in.available() != 0) {
+                    return false;
+                }
+                dictionary.reset();
+                return true;
+            }
+            if(op != PUT && op != DELETE && op != PUT_UTF8 && op != DELETE_UTF8) {
+                return false;
+            }
+            boolean utf8 = op == PUT_UTF8 || op == DELETE_UTF8;
+            String word = readString(in, utf8);
+            List<String> definitions = new ArrayList<>();
+            if(op == PUT || op == PUT_UTF8) {
+                int count = in.readInt();
+                if(count < 0 || count > in.available()) {
+                    return false;
+                }
+                for(int i = 0; i < count; i++) {
+                    definitions.add(readString(in, utf8));
+                }
+            }
+            if(in.available() != 0) {
+                return false;
+            }
+            // Older versions could journal a word with no definitions, which reads back as a deletion
+            if(definitions.isEmpty()) {
+                dictionary.remove(word);
+            } else {
+                dictionary.put(word, definitions);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A string as an int length and UTF-8 bytes, or with utf8 false in the older writeUTF form
+     */
+    private static String readString(DataInputStream in, boolean utf8) throws IOException {
+        if(!utf8) {
+            return in.readUTF();
+        }
+        int length = in.readInt();
+        if(length < 0 || length > in.available()) {
+            throw new EOFException("String longer than its record");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unlike writeUTF, any length fits, so a record can always be written for what is already in memory
+     */
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public void appendPut(String word, List<String> definitions) {
+        append(out -> {
+            out.writeByte(PUT_UTF8);
+            writeString(out, word);
+            out.writeInt(definitions.size());
+            for(String def : definitions) {
+                writeString(out, def);
+            }
+        });
+    }
+
+    public void appendDelete(String word) {
+        append(out -> {
+            out.writeByte(DELETE_UTF8);
+            writeString(out, word);
+        });
+    }
+
+    public void appendReset() {
+        append(out -> out.writeByte(RESET));
+    }
+
+    /**
+     * Bytes in the journal, including records not flushed yet
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Wait until everything appended so far is on disk. Call it without holding the dictionary's
+     * lock, so that other writers can append meanwhile and have their records go in the same fsync.
+     */
+    public void commit() throws IOException {
+        long target;
+        synchronized(this) {
+            target = appended;
+        }
+        synchronized(flushLock) {
+            if(durable < target) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * Write and fsync everything appended so far
+     */
+    public void sync() throws IOException {
+        synchronized(flushLock) {
+            byte[] batch;
+            long batchEnd;
+            synchronized(this) {
+                if(pending.size() == 0) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                batchEnd = appended;
+                pending.reset();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            durable = batchEnd;
+        }
+    }
+
+    /**
+     * Fold the journal into a snapshot of the changes taken at the same moment.
+     * The journal is rotated right away, the snapshot is written in the background
+     * and the rotated journal is only deleted once the snapshot is durably on disk.
+     * If an earlier compaction failed, its rotated journal is still there: the current
+     * journal is appended to it rather than moved over it, so none of its records are lost.
+     * Nothing may be appended between taking the snapshot and this call.
+     */
+    public void compact(Map<String, List<String>> snapshot, Path snapshotPath) throws IOException {
+        synchronized(flushLock) {
+            // The rotated file of a running compaction is still needed, wait for it first
+            awaitCompaction();
+            sync();
+            channel.close();
+            if(Files.exists(compactingPath)) {
+                appendTo(compactingPath);
+            } else {
+                Files.move(path, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+                DictionaryFile.syncDirectory(path);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            synchronized(this) {
+                size = pending.size();
+            }
+            compaction = compactor.submit(() -> {
+                DictionaryFile.write(snapshot, snapshotPath);
+                Files.deleteIfExists(compactingPath);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Copy the journal's records to the end of another journal file and fsync it.
+     * A crash before the journal is truncated just leaves the records in both, which replays the same.
+     */
+    private void appendTo(Path target) throws IOException {
+        try(FileChannel from = FileChannel.open(path, StandardOpenOption.READ);
+            FileChannel to = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = 0;
+            long length = from.size();
+            while(position < length) {
+                position += from.transferTo(position, length - position, to);
+            }
+            to.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitCompaction();
+        } finally {
+            compactor.shutdown();
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Wait until the last compaction has written its snapshot.
+     * A failed compaction is reported once, here; its records stay in the rotated journal,
+     * which is replayed on open and folded into the next compaction.
+     */
+    public void awaitCompaction() throws IOException {
+        Future<Void> running = compaction;
+        if(running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compacting journal");
+        } catch (ExecutionException e) {
+            throw new IOException("Journal compaction failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            synchronized(flushLock) {
+                if(compaction == running && running.isDone()) {
+                    compaction = null;
+                }
+            }
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(RecordWriter record) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            record.write(new DataOutputStream(bytes));
+            byte[] payload = bytes.toByteArray();
+            synchronized(this) {
+                DataOutputStream out = new DataOutputStream(pending);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.writeInt(checksum(payload));
+                size += payload.length + RECORD_OVERHEAD;
+                appended += payload.length + RECORD_OVERHEAD;
+            }
+        } catch (IOException e) {
+            // Only in-memory streams are written here
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static Path compactingPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".compacting");
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Deletion index over lowercased slang words for typo-tolerant lookup (SymSpell style).
+ * Every word is stored under all strings obtained by deleting up to MAX_DISTANCE chars
+ * from its prefix, so a query only probes its own deletions instead of every word.
+ */
+public class FuzzyIndex implements DictionaryIndex {
+    public static final int MAX_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+
+    private final HashMap<String, List<String>> deletes;
+
+    public FuzzyIndex() {
+        this.deletes = new HashMap<>();
+    }
+
+    @Override
+    public void add(String word, List<String> definitions) {
+        for(String variant : variants(word.toLowerCase(), MAX_DISTANCE)) {
+            List<String> words = deletes.computeIfAbsent(variant, v -> new ArrayList<>(1));
+            if(!words.contains(word)) {
+                words.add(word);
+            }
+        }
+    }
+
+    @Override
+    public void update(String word, List<String> oldDefinitions, List<String> newDefinitions) {
+        // Only the word is indexed
+    }
+
+    @Override
+    public void remove(String word, List<String> definitions) {
+        for(String variant : variants(word.toLowerCase(), MAX_DISTANCE)) {
+            List<String> words = deletes.get(variant);
+            if(words != null) {
+                words.remove(word);
+                if(words.isEmpty()) {
+                    deletes.remove(variant);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        deletes.clear();
+        for(String word : dictionary.keySet()) {
+            add(word, null);
+        }
+    }
+
+    /**
+     * Slang words within maxDistance edits of the query ignoring case, closest first
+     */
+    public List<String> suggest(String query, int maxDistance, int limit) {
+        String lower = query.toLowerCase();
+        int bound = Math.min(maxDistance, MAX_DISTANCE);
+
+        Map<String, Integer> found = new HashMap<>();
+        for(String variant : variants(lower, bound)) {
+            List<String> words = deletes.get(variant);
+            if(words == null) {
+                continue;
+            }
+            for(String word : words) {
+                if(found.containsKey(word)) {
+                    continue;
+                }
+                int distance = distance(lower, word.toLowerCase(), bound);
+                if(distance <= bound) {
+                    found.put(word, distance);
+                }
+            }
+        }
+
+        List<String> suggestions = new ArrayList<>(found.keySet());
+        suggestions.sort(Comparator.comparingInt((String word) -> found.get(word)).thenComparing(Comparator.naturalOrder()));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    /**
+     * The prefix of a word plus every string made by deleting up to maxDeletes chars from it
+     */
+    private static Set<String> variants(String word, int maxDeletes) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for(int d = 0; d < maxDeletes; d++) {
+            List<String> next = new ArrayList<>();
+            for(String s : frontier) {
+                for(int i = 0; i < s.length(); i++) {
+                    String deleted = s.substring(0, i) + s.substring(i + 1);
+                    if(variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    /**
+     * Optimal string alignment distance, or bound + 1 once it is known to exceed bound
+     */
+    static int distance(String a, String b, int bound) {
+        if(Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for(int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for(int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for(int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if(i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if(rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = recycled;
+        }
+        return Math.min(prev[b.length()], bound + 1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.slangdictionary;
+
+/**
+ * One search in the history
+ */
+public class HistoryEntry {
+    private final QueryType type;
+    private final String query;
+    private final long timestamp;
+
+    public HistoryEntry(QueryType type, String query, long timestamp) {
+        this.type = type;
+        this.query = query;
+        this.timestamp = timestamp;
+    }
+
+    public QueryType getType() {
+        return type;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * When the search was made, in epoch milliseconds, 0 if unknown
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return type.getLabel() + ": " + query;
+    }
+}
@@ -0,0 +1,81 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Outcome of merging a slang file into the live dictionary
+ */
+public class ImportReport {
+    private final List<String> added;
+    private final List<String> merged;
+    private final List<String> conflicting;
+    private int unchanged;
+    private int malformed;
+
+    public ImportReport() {
+        this.added = new ArrayList<>();
+        this.merged = new ArrayList<>();
+        this.conflicting = new ArrayList<>();
+    }
+
+    /**
+     * Words that were not in the dictionary
+     */
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * Existing words that got new definitions
+     */
+    public List<String> getMerged() {
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * Words the user deleted, left deleted
+     */
+    public List<String> getConflicting() {
+        return Collections.unmodifiableList(conflicting);
+    }
+
+    /**
+     * Entries that brought nothing new
+     */
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Lines left out for having no backtick or no definitions
+     */
+    public int getMalformed() {
+        return malformed;
+    }
+
+    void recordAdded(String word) {
+        added.add(word);
+    }
+
+    void recordMerged(String word) {
+        merged.add(word);
+    }
+
+    void recordConflicting(String word) {
+        conflicting.add(word);
+    }
+
+    void recordUnchanged() {
+        unchanged++;
+    }
+
+    void recordMalformed(int lines) {
+        malformed += lines;
+    }
+
+    @Override
+    public String toString() {
+        return "Added " + added.size() + ", merged " + merged.size() +
+                ", conflicting " + conflicting.size() + ", unchanged " + unchanged + ", malformed " + malformed;
+    }
+}
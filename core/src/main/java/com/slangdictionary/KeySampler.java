@@ -0,0 +1,105 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Slang words in a dense array, for O(1) random picks.
+ * A removed word is replaced by the last one, so the array never has holes.
+ */
+public class KeySampler implements DictionaryIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private String[] keys;
+    private final HashMap<String, Integer> positions;
+    private int size;
+
+    public KeySampler() {
+        this.keys = new String[INITIAL_CAPACITY];
+        this.positions = new HashMap<>();
+    }
+
+    @Override
+    public void add(String word, List<String> definitions) {
+        if(positions.containsKey(word)) {
+            return;
+        }
+        if(size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size] = word;
+        positions.put(word, size);
+        size++;
+    }
+
+    @Override
+    public void update(String word, List<String> oldDefinitions, List<String> newDefinitions) {
+        // Only the word is indexed
+    }
+
+    @Override
+    public void remove(String word, List<String> definitions) {
+        Integer pos = positions.remove(word);
+        if(pos == null) {
+            return;
+        }
+        size--;
+        String last = keys[size];
+        keys[size] = null;
+        if(pos < size) {
+            keys[pos] = last;
+            positions.put(last, pos);
+        }
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        positions.clear();
+        size = 0;
+        keys = new String[Math.max(INITIAL_CAPACITY, dictionary.size())];
+        for(String word : dictionary.keySet()) {
+            add(word, null);
+        }
+    }
+
+    /**
+     * A uniformly random slang word, null when there are none
+     */
+    public String random() {
+        int n = size;
+        if(n == 0) {
+            return null;
+        }
+        return keys[ThreadLocalRandom.current().nextInt(n)];
+    }
+
+    /**
+     * Up to count distinct random slang words, in random order.
+     * Floyd's algorithm, so only count positions are drawn however many words there are.
+     */
+    public List<String> sample(int count) {
+        List<String> sample = new ArrayList<>(Math.min(count, size));
+        for(int pos : samplePositions(size, count)) {
+            sample.add(keys[pos]);
+        }
+        // Floyd's order is not uniform, a late j tends to come last
+        Collections.shuffle(sample, ThreadLocalRandom.current());
+        return sample;
+    }
+
+    /**
+     * Up to count distinct positions below n, drawn with Floyd's algorithm
+     */
+    static Set<Integer> samplePositions(int n, int count) {
+        count = Math.min(count, n);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> picked = new LinkedHashSet<>(count * 2);
+        for(int j = n - count; j < n; j++) {
+            int pos = random.nextInt(j + 1);
+            if(!picked.add(pos)) {
+                picked.add(j);
+            }
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,126 @@
+package com.slangdictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Read-only dictionary view over a DictionaryFile, mapped or, for small files, read onto the heap.
+ * Nothing is cached on the heap: lookups compare the key's UTF-8 bytes with the stored ones,
+ * and keys and definitions are decoded on every read.
+ */
+public class MappedDictionary extends AbstractMap<String, List<String>> {
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableSize;
+    private final int entriesOffset;
+    private final int definitionsOffset;
+    private final int hashOffset;
+    private final int poolOffset;
+
+    MappedDictionary(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.tableSize = buffer.getInt(12);
+        this.entriesOffset = buffer.getInt(16);
+        this.definitionsOffset = buffer.getInt(20);
+        this.hashOffset = buffer.getInt(24);
+        this.poolOffset = buffer.getInt(28);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if(!(key instanceof String)) {
+            return null;
+        }
+        int entry = find((String) key);
+        return entry >= 0 ? value(entry) : null;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < count;
+                    }
+
+                    @Override
+                    public Entry<String, List<String>> next() {
+                        if(next >= count) {
+                            throw new NoSuchElementException();
+                        }
+                        int entry = next++;
+                        return new SimpleImmutableEntry<>(key(entry), value(entry));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private int find(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int mask = tableSize - 1;
+        int slot = DictionaryFile.spread(key.hashCode()) & mask;
+        while(true) {
+            int entry = buffer.getInt(hashOffset + slot * Integer.BYTES) - 1;
+            if(entry < 0) {
+                return -1;
+            }
+            if(keyEquals(entry, bytes)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(int entry, byte[] bytes) {
+        int base = entriesOffset + entry * DictionaryFile.ENTRY_SIZE;
+        if(buffer.getInt(base + 4) != bytes.length) {
+            return false;
+        }
+        int offset = poolOffset + buffer.getInt(base);
+        for(int i = 0; i < bytes.length; i++) {
+            if(buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String key(int entry) {
+        int base = entriesOffset + entry * DictionaryFile.ENTRY_SIZE;
+        return DictionaryFile.decode(buffer, poolOffset + buffer.getInt(base), buffer.getInt(base + 4));
+    }
+
+    private List<String> value(int entry) {
+        int base = entriesOffset + entry * DictionaryFile.ENTRY_SIZE;
+        int first = buffer.getInt(base + 8);
+        String[] defs = new String[buffer.getInt(base + 12)];
+        for(int d = 0; d < defs.length; d++) {
+            int def = definitionsOffset + (first + d) * DictionaryFile.DEFINITION_SIZE;
+            defs[d] = DictionaryFile.decode(buffer, poolOffset + buffer.getInt(def), buffer.getInt(def + 4));
+        }
+        return List.of(defs);
+    }
+}
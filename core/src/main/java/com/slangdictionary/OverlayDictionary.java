@@ -0,0 +1,158 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copy-on-write view of an immutable base dictionary plus the user's changes.
+ * Added and edited words live in the overlay, deleted base words are kept as tombstones,
+ * and every definition list handed out is unmodifiable.
+ * Writers have to be serialized by the caller; reads are safe from any thread
+ * and always see either the old or the new value of a word.
+ */
+public class OverlayDictionary extends AbstractMap<String, List<String>> {
+    private final Map<String, List<String>> base;
+    private final ConcurrentHashMap<String, List<String>> changed;
+    private final Set<String> deleted;
+    private volatile int size;
+
+    public OverlayDictionary(Map<String, List<String>> base) {
+        this.base = base;
+        this.changed = new ConcurrentHashMap<>();
+        this.deleted = ConcurrentHashMap.newKeySet();
+        this.size = base.size();
+    }
+
+    public Map<String, List<String>> getBase() {
+        return base;
+    }
+
+    /**
+     * Added or edited words, in the overlay only
+     */
+    public Map<String, List<String>> getChanged() {
+        return Collections.unmodifiableMap(changed);
+    }
+
+    /**
+     * Base words the user deleted
+     */
+    public Set<String> getDeleted() {
+        return Collections.unmodifiableSet(deleted);
+    }
+
+    public boolean hasChanges() {
+        return !changed.isEmpty() || !deleted.isEmpty();
+    }
+
+    /**
+     * Drop every change and fall back to the base
+     */
+    public void reset() {
+        changed.clear();
+        deleted.clear();
+        size = base.size();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if(changed.containsKey(key)) {
+            return true;
+        }
+        return !deleted.contains(key) && base.containsKey(key);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        List<String> value = changed.get(key);
+        if(value != null) {
+            return value;
+        }
+        return deleted.contains(key) ? null : base.get(key);
+    }
+
+    @Override
+    public List<String> put(String key, List<String> definitions) {
+        List<String> previous = get(key);
+        List<String> copy = Collections.unmodifiableList(new ArrayList<>(definitions));
+        if(copy.equals(base.get(key))) {
+            // Back to the base value, nothing to keep in the overlay
+            deleted.remove(key);
+            changed.remove(key);
+        } else {
+            changed.put(key, copy);
+            deleted.remove(key);
+        }
+        if(previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        List<String> previous = get(key);
+        if(previous == null) {
+            return null;
+        }
+        if(base.containsKey(key)) {
+            deleted.add((String) key);
+        }
+        changed.remove(key);
+        size--;
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                Iterator<Entry<String, List<String>>> baseEntries = base.entrySet().iterator();
+                Iterator<Entry<String, List<String>>> changedEntries = changed.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, List<String>> next = advance();
+
+                    private Entry<String, List<String>> advance() {
+                        while(baseEntries.hasNext()) {
+                            Entry<String, List<String>> entry = baseEntries.next();
+                            if(!changed.containsKey(entry.getKey()) && !deleted.contains(entry.getKey())) {
+                                return entry;
+                            }
+                        }
+                        if(changedEntries.hasNext()) {
+                            Entry<String, List<String>> entry = changedEntries.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<String, List<String>> next() {
+                        if(next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, List<String>> current = next;
+                        next = advance();
+                        return current;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Slang words kept sorted by their lowercased form, for prefix completion
+ */
+public class PrefixIndex implements DictionaryIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Comparator<String> ORDER = Comparator.comparing((String w) -> w.toLowerCase()).thenComparing(Comparator.naturalOrder());
+
+    private String[] lowered;
+    private String[] words;
+    private int size;
+
+    public PrefixIndex() {
+        this.lowered = new String[INITIAL_CAPACITY];
+        this.words = new String[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void add(String word, List<String> definitions) {
+        String lower = word.toLowerCase();
+        int pos = search(lower, word);
+        if(pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        if(size == words.length) {
+            lowered = Arrays.copyOf(lowered, size * 2);
+            words = Arrays.copyOf(words, size * 2);
+        }
+        System.arraycopy(lowered, pos, lowered, pos + 1, size - pos);
+        System.arraycopy(words, pos, words, pos + 1, size - pos);
+        lowered[pos] = lower;
+        words[pos] = word;
+        size++;
+    }
+
+    @Override
+    public void update(String word, List<String> oldDefinitions, List<String> newDefinitions) {
+        // Only the word is indexed
+    }
+
+    /**
+     * Sort the new words and merge them in with one pass over the arrays,
+     * instead of shifting the arrays for every word
+     */
+    @Override
+    public void addAll(Map<String, List<String>> entries) {
+        List<String> added = new ArrayList<>(entries.size());
+        for(String word : entries.keySet()) {
+            if(search(word.toLowerCase(), word) < 0) {
+                added.add(word);
+            }
+        }
+        if(added.isEmpty()) {
+            return;
+        }
+        String[] sorted = added.toArray(new String[0]);
+        Arrays.sort(sorted, ORDER);
+        String[] sortedLowered = new String[sorted.length];
+        for(int k = 0; k < sorted.length; k++) {
+            sortedLowered[k] = sorted[k].toLowerCase();
+        }
+        int merged = size + sorted.length;
+        String[] mergedLowered = new String[Math.max(lowered.length, merged + merged / 2)];
+        String[] mergedWords = new String[mergedLowered.length];
+        int i = 0;
+        int j = 0;
+        for(int k = 0; k < merged; k++) {
+            if(j == sorted.length || (i < size && compare(lowered[i], words[i], sortedLowered[j], sorted[j]) < 0)) {
+                mergedLowered[k] = lowered[i];
+                mergedWords[k] = words[i++];
+            } else {
+                mergedLowered[k] = sortedLowered[j];
+                mergedWords[k] = sorted[j++];
+            }
+        }
+        lowered = mergedLowered;
+        words = mergedWords;
+        size = merged;
+    }
+
+    @Override
+    public void remove(String word, List<String> definitions) {
+        int pos = search(word.toLowerCase(), word);
+        if(pos < 0) {
+            return;
+        }
+        System.arraycopy(lowered, pos + 1, lowered, pos, size - pos - 1);
+        System.arraycopy(words, pos + 1, words, pos, size - pos - 1);
+        size--;
+        lowered[size] = null;
+        words[size] = null;
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        String[] sorted = dictionary.keySet().toArray(new String[0]);
+        Arrays.sort(sorted, ORDER);
+        size = sorted.length;
+        words = Arrays.copyOf(sorted, Math.max(INITIAL_CAPACITY, size));
+        lowered = new String[words.length];
+        for(int i = 0; i < size; i++) {
+            lowered[i] = sorted[i].toLowerCase();
+        }
+    }
+
+    /**
+     * Up to limit slang words starting with the prefix, ignoring case, in alphabetical order
+     */
+    public List<String> complete(String prefix, int limit) {
+        String lower = prefix.toLowerCase();
+        int pos = search(lower, "");
+        if(pos < 0) {
+            pos = -pos - 1;
+        }
+        List<String> completions = new ArrayList<>(Math.min(limit, 16));
+        for(int i = pos; i < size && completions.size() < limit && lowered[i].startsWith(lower); i++) {
+            completions.add(words[i]);
+        }
+        return completions;
+    }
+
+    /**
+     * The slang word equal to word ignoring case, null if there is none.
+     * If several differ only in case, word itself wins, then the first in alphabetical order.
+     */
+    public String findIgnoreCase(String word) {
+        String lower = word.toLowerCase();
+        int pos = search(lower, word);
+        if(pos >= 0) {
+            return words[pos];
+        }
+        pos = -search(lower, "") - 1;
+        return pos >= 0 && pos < size && lowered[pos].equals(lower) ? words[pos] : null;
+    }
+
+    private static int compare(String lowerA, String wordA, String lowerB, String wordB) {
+        int cmp = lowerA.compareTo(lowerB);
+        return cmp != 0 ? cmp : wordA.compareTo(wordB);
+    }
+
+    /**
+     * Binary search on (lowercased word, word), same contract as Arrays.binarySearch
+     */
+    private int search(String lower, String word) {
+        int low = 0;
+        int high = size - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = lowered[mid].compareTo(lower);
+            if(cmp == 0) {
+                cmp = words[mid].compareTo(word);
+            }
+            if(cmp < 0) {
+                low = mid + 1;
+            } else if(cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,231 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache of query results, keyed on the normalized query.
+ *
+ * The cache is split into segments by key hash, each with its own lock and an equal share of
+ * the bounds, so lookups of different queries rarely wait on each other. Within a segment
+ * entries are evicted least recently used first, once there are more than its share of
+ * maxEntries or their weights (roughly, the number of results) add up to more than its share
+ * of maxWeight.
+ * Every result is stamped with the dictionary version it was computed at and only served at
+ * that version. An entry found stale is dropped then, so an edit costs nothing up front and a
+ * result never outlives it. Cached results are shared and must not be modified.
+ */
+public class QueryCache {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    /**
+     * A cache of at most about maxEntries results of total weight maxWeight.
+     * A single result heavier than a segment's share of maxWeight is not kept.
+     */
+    public QueryCache(int maxEntries, long maxWeight) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(SEGMENTS, maxEntries)));
+        this.segments = new Segment[count];
+        for(int i = 0; i < count; i++) {
+            segments[i] = new Segment(Math.max(1, maxEntries / count), Math.max(1, maxWeight / count));
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final int weight;
+        private final long version;
+
+        Entry(Object value, int weight, long version) {
+            this.value = value;
+            this.weight = weight;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Hit/miss/eviction counters plus the current size, for tuning
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int entries;
+        private final long weight;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int entries, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.entries = entries;
+            this.weight = weight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Entries pushed out to stay within the bounds
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Entries dropped because the dictionary changed
+         */
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits %d, misses %d (%.1f%% hit rate), evictions %d, invalidations %d, %d entries of weight %d",
+                    hits, misses, getHitRate() * 100, evictions, invalidations, entries, weight);
+        }
+    }
+
+    /**
+     * The cached result of a query at the given dictionary version, computing and caching it on a miss.
+     * The query runs without holding a lock, two threads missing at once may both run it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long currentVersion, Supplier<T> query, ToIntFunction<T> weigher) {
+        Segment segment = segmentFor(key);
+        Entry entry = segment.get(key, currentVersion);
+        if(entry != null) {
+            return (T) entry.value;
+        }
+        T value = query.get();
+        int valueWeight = Math.max(1, weigher.applyAsInt(value));
+        segment.put(key, new Entry(value, valueWeight, currentVersion));
+        return value;
+    }
+
+    public Stats getStats() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long invalidations = 0;
+        int entries = 0;
+        long weight = 0;
+        for(Segment segment : segments) {
+            synchronized(segment) {
+                hits += segment.hits;
+                misses += segment.misses;
+                evictions += segment.evictions;
+                invalidations += segment.invalidations;
+                entries += segment.entries.size();
+                weight += segment.weight;
+            }
+        }
+        return new Stats(hits, misses, evictions, invalidations, entries, weight);
+    }
+
+    public void clear() {
+        for(Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * One share of the cache, an access-ordered map guarded by its own monitor
+     */
+    private static final class Segment {
+        private final int maxEntries;
+        private final long maxWeight;
+        private final LinkedHashMap<String, Entry> entries;
+        private long weight;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long invalidations;
+
+        Segment(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        /**
+         * The entry for a key computed at the given version, null on a miss.
+         * An entry from an older version is dropped, one from a newer version is left for others.
+         */
+        synchronized Entry get(String key, long currentVersion) {
+            Entry entry = entries.get(key);
+            if(entry != null && entry.version == currentVersion) {
+                hits++;
+                return entry;
+            }
+            if(entry != null && entry.version < currentVersion) {
+                entries.remove(key);
+                weight -= entry.weight;
+                invalidations++;
+            }
+            misses++;
+            return null;
+        }
+
+        synchronized void put(String key, Entry entry) {
+            if(entry.weight > maxWeight) {
+                return;
+            }
+            Entry previous = entries.get(key);
+            if(previous != null) {
+                // A result computed at an older version than the cached one is not kept
+                if(previous.version > entry.version) {
+                    return;
+                }
+                if(previous.version < entry.version) {
+                    invalidations++;
+                }
+                weight -= previous.weight;
+            }
+            entries.put(key, entry);
+            weight += entry.weight;
+            evict();
+        }
+
+        synchronized void clear() {
+            invalidations += entries.size();
+            entries.clear();
+            weight = 0;
+        }
+
+        private void evict() {
+            Iterator<Entry> eldest = entries.values().iterator();
+            while((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+                weight -= eldest.next().weight;
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+}
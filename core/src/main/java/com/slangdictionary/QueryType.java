@@ -0,0 +1,19 @@
+package com.slangdictionary;
+
+/**
+ * Kinds of dictionary searches, as recorded in the search history
+ */
+public enum QueryType {
+    SLANG_WORD("Slang word"),
+    DEFINITION("Definition");
+
+    private final String label;
+
+    QueryType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,151 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distractor pool for quizzes: every distinct first definition with the slang words that have it.
+ * Definitions sit in a dense array with swap-remove like KeySampler, so distractors are drawn
+ * without replacement in time proportional to the number of options, and two options never
+ * share a first definition.
+ */
+public class QuizEngine implements DictionaryIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private String[] definitions;
+    private List<String>[] wordsByDefinition;
+    private final HashMap<String, Integer> positions;
+    private int size;
+
+    public QuizEngine() {
+        this.definitions = new String[INITIAL_CAPACITY];
+        this.wordsByDefinition = newWordLists(INITIAL_CAPACITY);
+        this.positions = new HashMap<>();
+    }
+
+    @Override
+    public void add(String word, List<String> definitionList) {
+        if(definitionList.isEmpty()) {
+            return;
+        }
+        String first = definitionList.get(0);
+        Integer pos = positions.get(first);
+        if(pos == null) {
+            if(size == definitions.length) {
+                definitions = Arrays.copyOf(definitions, size * 2);
+                wordsByDefinition = Arrays.copyOf(wordsByDefinition, size * 2);
+            }
+            pos = size++;
+            definitions[pos] = first;
+            wordsByDefinition[pos] = new ArrayList<>(1);
+            positions.put(first, pos);
+        }
+        wordsByDefinition[pos].add(word);
+    }
+
+    @Override
+    public void remove(String word, List<String> definitionList) {
+        if(definitionList.isEmpty()) {
+            return;
+        }
+        String first = definitionList.get(0);
+        Integer pos = positions.get(first);
+        if(pos == null) {
+            return;
+        }
+        List<String> words = wordsByDefinition[pos];
+        words.remove(word);
+        if(!words.isEmpty()) {
+            return;
+        }
+        positions.remove(first);
+        size--;
+        if(pos < size) {
+            definitions[pos] = definitions[size];
+            wordsByDefinition[pos] = wordsByDefinition[size];
+            positions.put(definitions[pos], pos);
+        }
+        definitions[size] = null;
+        wordsByDefinition[size] = null;
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        positions.clear();
+        size = 0;
+        definitions = new String[INITIAL_CAPACITY];
+        wordsByDefinition = newWordLists(INITIAL_CAPACITY);
+        for(Map.Entry<String, List<String>> entry : dictionary.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Number of distinct first definitions, the most options a question can have
+     */
+    public int distinctDefinitions() {
+        return size;
+    }
+
+    /**
+     * A question about a slang word with the given definitions.
+     * Distractors come from the preferred first definitions (say, similar ones) first, then at random.
+     * Has fewer than optionCount options only when there are not enough distinct first definitions.
+     * Null for a word without definitions, which has no right answer.
+     */
+    public QuizQuestion question(QuizQuestion.Type type, String word, List<String> wordDefinitions,
+                                 int optionCount, List<String> preferred) {
+        if(wordDefinitions.isEmpty()) {
+            return null;
+        }
+        String answerDefinition = wordDefinitions.get(0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        Set<Integer> chosen = new LinkedHashSet<>();
+        for(String definition : preferred) {
+            if(chosen.size() == optionCount - 1) {
+                break;
+            }
+            Integer pos = positions.get(definition);
+            if(pos != null && !definition.equals(answerDefinition)) {
+                chosen.add(pos);
+            }
+        }
+        // Enough draws to fill up even if the answer's own and every chosen definition come up.
+        // Floyd's order is not uniform and only a prefix may be used, so shuffle the draws first.
+        List<Integer> drawn = new ArrayList<>(KeySampler.samplePositions(size, optionCount + chosen.size()));
+        Collections.shuffle(drawn, random);
+        for(int pos : drawn) {
+            if(chosen.size() == optionCount - 1) {
+                break;
+            }
+            if(!definitions[pos].equals(answerDefinition)) {
+                chosen.add(pos);
+            }
+        }
+
+        List<String> options = new ArrayList<>(optionCount);
+        for(int pos : chosen) {
+            if(type == QuizQuestion.Type.GUESS_DEFINITION) {
+                options.add(definitions[pos]);
+            } else {
+                List<String> words = wordsByDefinition[pos];
+                options.add(words.get(random.nextInt(words.size())));
+            }
+        }
+        Collections.shuffle(options, random);
+
+        int answerIndex = random.nextInt(options.size() + 1);
+        if(type == QuizQuestion.Type.GUESS_DEFINITION) {
+            options.add(answerIndex, answerDefinition);
+            return new QuizQuestion(type, word, word, options, answerIndex);
+        }
+        options.add(answerIndex, word);
+        return new QuizQuestion(type, word, answerDefinition, options, answerIndex);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newWordLists(int capacity) {
+        return (List<String>[]) new List<?>[capacity];
+    }
+}
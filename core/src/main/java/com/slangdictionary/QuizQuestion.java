@@ -0,0 +1,67 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * One multiple-choice quiz question
+ */
+public class QuizQuestion {
+
+    public enum Type {
+        /** Show a slang word, choose its definition */
+        GUESS_DEFINITION,
+        /** Show a definition, choose the slang word */
+        GUESS_SLANG
+    }
+
+    private final Type type;
+    private final String slangWord;
+    private final String prompt;
+    private final List<String> options;
+    private final int answerIndex;
+
+    QuizQuestion(Type type, String slangWord, String prompt, List<String> options, int answerIndex) {
+        this.type = type;
+        this.slangWord = slangWord;
+        this.prompt = prompt;
+        this.options = Collections.unmodifiableList(options);
+        this.answerIndex = answerIndex;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The slang word the question is about
+     */
+    public String getSlangWord() {
+        return slangWord;
+    }
+
+    /**
+     * The slang word or definition shown to the player
+     */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    /**
+     * The choices, all distinct, in random order
+     */
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public int getAnswerIndex() {
+        return answerIndex;
+    }
+
+    public String getAnswer() {
+        return options.get(answerIndex);
+    }
+
+    public boolean isCorrect(String choice) {
+        return getAnswer().equals(choice);
+    }
+}
@@ -0,0 +1,96 @@
+package com.slangdictionary;
+
+import java.io.Closeable;
+import java.util.concurrent.*;
+
+/**
+ * Runs dictionary queries on a small pool of background threads.
+ *
+ * Queries are submitted on a named channel, one per search box. Submitting a query cancels
+ * the one still running on the same channel, so only the latest query of a channel ever
+ * completes normally. Cancelling a future interrupts the thread running it; long queries
+ * check the interrupt flag and stop early.
+ */
+public class SearchExecutor implements Closeable {
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<?>> latest;
+
+    public SearchExecutor() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public SearchExecutor(int threads) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), daemon());
+        this.latest = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Run a query in the background, cancelling the previous query of the channel.
+     * The future completes exceptionally with a CancellationException when the query is superseded.
+     */
+    public <T> CompletableFuture<T> submit(String channel, Callable<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<T> task = new FutureTask<>(query) {
+            @Override
+            protected void done() {
+                if(isCancelled()) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    result.cancel(false);
+                }
+            }
+        };
+        result.whenComplete((value, error) -> {
+            if(result.isCancelled()) {
+                task.cancel(true);
+            }
+            latest.remove(channel, result);
+        });
+
+        CompletableFuture<?> previous = latest.put(channel, result);
+        if(previous != null) {
+            previous.cancel(true);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Cancel the query still running on a channel, if any
+     */
+    public void cancel(String channel) {
+        CompletableFuture<?> running = latest.get(channel);
+        if(running != null) {
+            running.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        for(CompletableFuture<?> running : latest.values()) {
+            running.cancel(true);
+        }
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemon() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "dictionary-search");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package com.slangdictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * The last searches, oldest first, dropping the oldest entry when full.
+ * With dedup, searching again for the same thing moves it to the front instead of adding it twice.
+ *
+ * Entries sit in an array of twice the capacity, in search order. With dedup a map from query
+ * to slot finds the earlier search, which just leaves a hole behind, so adding is O(1) whatever
+ * the capacity. Once the array is used up the live entries are moved to its start, which takes
+ * at least capacity adds to come round again.
+ *
+ * The history is persisted as a log of one line per search. Saving only appends the searches
+ * made since the last save; once the log holds more than twice the capacity it is rewritten
+ * from the buffer, so both memory and the log stay bounded.
+ */
+public class SearchHistory {
+    private final HistoryEntry[] slots;
+    private final int capacity;
+    private final boolean dedup;
+    private final EnumMap<QueryType, HashMap<String, Integer>> positions;
+    private int head;
+    private int end;
+    private int size;
+    private final ArrayDeque<HistoryEntry> pending;
+    private boolean rewrite;
+    private int logLines;
+
+    public SearchHistory(int capacity, boolean dedup) {
+        this.slots = new HistoryEntry[capacity * 2];
+        this.capacity = capacity;
+        this.dedup = dedup;
+        this.positions = new EnumMap<>(QueryType.class);
+        for(QueryType type : QueryType.values()) {
+            positions.put(type, new HashMap<>());
+        }
+        this.pending = new ArrayDeque<>();
+    }
+
+    public synchronized void add(QueryType type, String query) {
+        HistoryEntry entry = new HistoryEntry(type, query, System.currentTimeMillis());
+        push(entry);
+        pending.add(entry);
+        if(pending.size() > capacity) {
+            // Appending would replay more than the buffer holds, write the buffer out instead
+            pending.clear();
+            rewrite = true;
+        }
+    }
+
+    /**
+     * The entries, oldest first
+     */
+    public synchronized List<HistoryEntry> entries() {
+        List<HistoryEntry> entries = new ArrayList<>(size);
+        for(int i = head; i < end; i++) {
+            if(slots[i] != null) {
+                entries.add(slots[i]);
+            }
+        }
+        return entries;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(slots, null);
+        for(HashMap<String, Integer> byQuery : positions.values()) {
+            byQuery.clear();
+        }
+        head = 0;
+        end = 0;
+        size = 0;
+        pending.clear();
+        rewrite = true;
+    }
+
+    /**
+     * Replace the entries with those in a log, returns false if there is no log
+     */
+    public synchronized boolean load(Path log) throws IOException {
+        clear();
+        rewrite = false;
+        logLines = 0;
+        if(!Files.exists(log)) {
+            return false;
+        }
+        try(BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                logLines++;
+                HistoryEntry entry = parse(line);
+                if(entry != null) {
+                    push(entry);
+                }
+            }
+        }
+        // A torn last line would swallow the next appended one
+        rewrite = !endsWithNewline(log);
+        return true;
+    }
+
+    /**
+     * Take over entries from elsewhere, as if they had just been searched in this order
+     */
+    public synchronized void addAll(List<HistoryEntry> entries) {
+        for(HistoryEntry entry : entries) {
+            push(entry);
+        }
+        pending.clear();
+        rewrite = true;
+    }
+
+    /**
+     * Append the searches made since the last save to the log, or rewrite it when it got too long
+     */
+    public synchronized void save(Path log) throws IOException {
+        if(!rewrite && logLines + pending.size() <= capacity * 2) {
+            if(pending.isEmpty()) {
+                return;
+            }
+            try(BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for(HistoryEntry entry : pending) {
+                    writer.write(format(entry));
+                }
+            }
+            logLines += pending.size();
+            pending.clear();
+            return;
+        }
+
+        Path temp = log.resolveSibling(log.getFileName() + ".tmp");
+        try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for(HistoryEntry entry : entries()) {
+                writer.write(format(entry));
+            }
+        }
+        Files.move(temp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logLines = size;
+        pending.clear();
+        rewrite = false;
+    }
+
+    private static boolean endsWithNewline(Path log) throws IOException {
+        try(SeekableByteChannel channel = Files.newByteChannel(log)) {
+            if(channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void push(HistoryEntry entry) {
+        if(dedup) {
+            Integer earlier = positions.get(entry.getType()).remove(entry.getQuery());
+            if(earlier != null) {
+                slots[earlier] = null;
+                size--;
+            }
+        }
+        if(size == capacity) {
+            dropOldest();
+        }
+        if(end == slots.length) {
+            compact();
+        }
+        slots[end] = entry;
+        if(dedup) {
+            positions.get(entry.getType()).put(entry.getQuery(), end);
+        }
+        end++;
+        size++;
+    }
+
+    private void dropOldest() {
+        while(slots[head] == null) {
+            head++;
+        }
+        HistoryEntry oldest = slots[head];
+        if(dedup) {
+            positions.get(oldest.getType()).remove(oldest.getQuery());
+        }
+        slots[head++] = null;
+        size--;
+    }
+
+    /**
+     * Move the live entries to the start of the array, closing the holes
+     */
+    private void compact() {
+        int to = 0;
+        for(int from = head; from < end; from++) {
+            HistoryEntry entry = slots[from];
+            if(entry == null) {
+                continue;
+            }
+            slots[from] = null;
+            slots[to] = entry;
+            if(dedup) {
+                positions.get(entry.getType()).put(entry.getQuery(), to);
+            }
+            to++;
+        }
+        head = 0;
+        end = to;
+    }
+
+    /**
+     * timestamp, type and query separated by tabs, with tabs and line breaks in the query escaped
+     */
+    private static String format(HistoryEntry entry) {
+        String query = entry.getQuery().replace("\\", "\\\\").replace("\t", "\\t")
+                .replace("\n", "\\n").replace("\r", "\\r");
+        return entry.getTimestamp() + "\t" + entry.getType().name() + "\t" + query + "\n";
+    }
+
+    /**
+     * Null for a malformed line, such as one torn by a crash
+     */
+    private static HistoryEntry parse(String line) {
+        String[] fields = line.split("\t", 3);
+        if(fields.length < 3) {
+            return null;
+        }
+        try {
+            long timestamp = Long.parseLong(fields[0]);
+            QueryType type = QueryType.valueOf(fields[1]);
+            return new HistoryEntry(type, unescape(fields[2]), timestamp);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String unescape(String text) {
+        if(text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * MinHash signatures of first definitions, banded into LSH buckets, for finding
+ * definitions that share tokens with a given one without comparing all pairs.
+ *
+ * A definition is indexed while at least one slang word has it as first definition.
+ * Signatures have BANDS * ROWS hashes; two definitions land in a common bucket when all
+ * ROWS hashes of some band agree, which is likely from a token overlap (Jaccard) of about 0.3 up.
+ * Tokens are kept as their hash codes only, which is all MinHash needs and a fraction of the
+ * heap of the Strings; a rare collision just nudges an overlap score.
+ */
+public class SimilarityIndex implements DictionaryIndex {
+    private static final int BANDS = 8;
+    private static final int ROWS = 2;
+    private static final int MAX_CANDIDATES = 64;
+
+    private final HashMap<String, Indexed> indexed;
+    private final HashMap<Long, Set<String>> buckets;
+
+    public SimilarityIndex() {
+        this.indexed = new HashMap<>();
+        this.buckets = new HashMap<>();
+    }
+
+    /**
+     * An indexed definition: the hashes of its distinct tokens, sorted, and how many slang words have it first
+     */
+    private static final class Indexed {
+        private final int[] tokens;
+        private int references;
+
+        Indexed(int[] tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+    @Override
+    public void add(String word, List<String> definitions) {
+        if(definitions.isEmpty()) {
+            return;
+        }
+        String first = definitions.get(0);
+        Indexed entry = indexed.get(first);
+        if(entry == null) {
+            entry = new Indexed(tokens(first));
+            indexed.put(first, entry);
+            long[] bands = bandKeys(entry.tokens);
+            if(bands != null) {
+                for(long band : bands) {
+                    buckets.computeIfAbsent(band, b -> new HashSet<>(2)).add(first);
+                }
+            }
+        }
+        entry.references++;
+    }
+
+    @Override
+    public void remove(String word, List<String> definitions) {
+        if(definitions.isEmpty()) {
+            return;
+        }
+        String first = definitions.get(0);
+        Indexed entry = indexed.get(first);
+        if(entry == null || --entry.references > 0) {
+            return;
+        }
+        indexed.remove(first);
+        long[] bands = bandKeys(entry.tokens);
+        if(bands != null) {
+            for(long band : bands) {
+                Set<String> bucket = buckets.get(band);
+                if(bucket != null) {
+                    bucket.remove(first);
+                    if(bucket.isEmpty()) {
+                        buckets.remove(band);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        indexed.clear();
+        buckets.clear();
+        for(Map.Entry<String, List<String>> entry : dictionary.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Up to limit indexed definitions sharing tokens with the given one, most overlap first.
+     * Only bucket neighbours are compared, at most MAX_CANDIDATES of them.
+     */
+    public List<String> similar(String definition, int limit) {
+        int[] queryTokens = tokens(definition);
+        long[] bands = bandKeys(queryTokens);
+        if(bands == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<String> candidates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        collect:
+        for(long band : bands) {
+            for(String candidate : buckets.getOrDefault(band, Collections.emptySet())) {
+                if(!candidate.equals(definition) && seen.add(candidate)) {
+                    candidates.add(candidate);
+                    if(candidates.size() >= MAX_CANDIDATES) {
+                        break collect;
+                    }
+                }
+            }
+        }
+
+        // limit is a handful of options, an insertion-sorted top list beats sorting every candidate
+        List<String> ranked = new ArrayList<>(limit + 1);
+        double[] best = new double[limit + 1];
+        for(String candidate : candidates) {
+            double overlap = jaccard(queryTokens, indexed.get(candidate).tokens);
+            int pos = ranked.size();
+            while(pos > 0 && (best[pos - 1] < overlap
+                    || (best[pos - 1] == overlap && ranked.get(pos - 1).compareTo(candidate) > 0))) {
+                pos--;
+            }
+            if(pos < limit) {
+                ranked.add(pos, candidate);
+                System.arraycopy(best, pos, best, pos + 1, ranked.size() - 1 - pos);
+                best[pos] = overlap;
+                if(ranked.size() > limit) {
+                    ranked.remove(limit);
+                }
+            }
+        }
+        return ranked;
+    }
+
+    private static int[] tokens(String definition) {
+        List<String> tokens = DefinitionIndex.tokenize(definition.toLowerCase());
+        int[] sorted = new int[tokens.size()];
+        for(int i = 0; i < sorted.length; i++) {
+            sorted[i] = tokens.get(i).hashCode();
+        }
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for(int i = 0; i < sorted.length; i++) {
+            if(distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+
+    /**
+     * Jaccard similarity of two sorted token hash arrays
+     */
+    private static double jaccard(int[] a, int[] b) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while(i < a.length && j < b.length) {
+            if(a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if(a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    /**
+     * One key per band of the MinHash signature, null for a definition without tokens
+     */
+    private static long[] bandKeys(int[] tokens) {
+        if(tokens.length == 0) {
+            return null;
+        }
+        long[] signature = new long[BANDS * ROWS];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for(int token : tokens) {
+            long base = token;
+            for(int i = 0; i < signature.length; i++) {
+                long hash = mix(base + (i + 1) * 0x9E3779B97F4A7C15L);
+                if(hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+
+        long[] keys = new long[BANDS];
+        for(int band = 0; band < BANDS; band++) {
+            long key = band;
+            for(int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /**
+     * MurmurHash3 finalizer
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,118 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Aho-Corasick automaton over all slang words, for finding them in running text.
+ *
+ * Nothing is built until text is first annotated, so the other queries never pay for it: the
+ * first call builds the automaton from the live dictionary. From then on the automaton is
+ * replaced rather than updated: adding a word that is not in it yet, or reloading the
+ * dictionary, schedules a rebuild on a background thread. Edits arriving while a rebuild is
+ * queued or running fold into the next one. Until the new automaton is published, text is
+ * scanned with the previous one, so a word added just now may be missed for a moment.
+ * Removals never rebuild: a removed word stays in the automaton, but is dropped from results
+ * since it has no definitions anymore.
+ */
+public class SlangAnnotator {
+    private final Supplier<Collection<String>> words;
+    private final ExecutorService rebuilder;
+    private final Object firstBuild;
+    private volatile SlangAutomaton automaton;
+    private long generation;
+    private long published;
+    private boolean scheduled;
+
+    /**
+     * An annotator building from the given slang words, which must be safe to iterate while the dictionary changes
+     */
+    public SlangAnnotator(Supplier<Collection<String>> words) {
+        this.words = words;
+        this.rebuilder = new ThreadPoolExecutor(0, 1, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "annotator-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.firstBuild = new Object();
+    }
+
+    /**
+     * A slang word was added or got new definitions
+     */
+    public synchronized void add(String word) {
+        if(automaton != null && published == generation && automaton.contains(word)) {
+            return;
+        }
+        generation++;
+        if(automaton != null) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * The dictionary was replaced as a whole
+     */
+    public synchronized void reload() {
+        generation++;
+        if(automaton != null) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * The current automaton, built on the spot the first time
+     */
+    SlangAutomaton automaton() {
+        SlangAutomaton current = automaton;
+        return current != null ? current : buildFirst();
+    }
+
+    /**
+     * Build the first automaton without holding this annotator's monitor, so writers reporting
+     * edits meanwhile are not held up; any such edit is caught up with by a background rebuild.
+     */
+    private SlangAutomaton buildFirst() {
+        synchronized(firstBuild) {
+            if(automaton != null) {
+                return automaton;
+            }
+            long target;
+            synchronized(this) {
+                target = generation;
+            }
+            SlangAutomaton built = SlangAutomaton.build(words.get());
+            synchronized(this) {
+                automaton = built;
+                published = target;
+                if(generation > target) {
+                    scheduleRebuild();
+                }
+            }
+            return built;
+        }
+    }
+
+    private void scheduleRebuild() {
+        if(!scheduled) {
+            scheduled = true;
+            rebuilder.execute(this::rebuildInBackground);
+        }
+    }
+
+    private void rebuildInBackground() {
+        long target;
+        synchronized(this) {
+            scheduled = false;
+            target = generation;
+        }
+        SlangAutomaton rebuilt = SlangAutomaton.build(words.get());
+        synchronized(this) {
+            if(target > published) {
+                automaton = rebuilt;
+                published = target;
+            }
+        }
+    }
+}
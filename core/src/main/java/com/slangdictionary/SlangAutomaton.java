@@ -0,0 +1,573 @@
+package com.slangdictionary;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Aho-Corasick automaton over a set of slang words, finding all of them in one pass over a text,
+ * in time linear in the length of the text plus the number of matches.
+ *
+ * The trie is built on case-folded words, so one automaton serves both case-sensitive and
+ * case-insensitive scans: a case-sensitive scan checks the matched text against the word.
+ * States are numbered breadth-first and kept in flat arrays. Chars are first mapped to classes,
+ * one per char occurring in some word and a shared one for all others, and the states up to
+ * DENSE_DEPTH deep, which a scan spends nearly all its time in, get a full transition row over
+ * the classes, so a step is a single array load. How many rows that makes, and how wide they
+ * are, follows from the words and the chars they use, so the rows are also capped at
+ * DENSE_TRANSITIONS entries in all: with many distinct chars, fewer of the shallow states get one.
+ * The other states keep a sorted run of edges and fall back on their fail links. Immutable once built, so any number of scans can share it.
+ */
+class SlangAutomaton {
+    private static final char[] FOLD = new char[Character.MAX_VALUE + 1];
+    private static final boolean[] WORD_CHARS = new boolean[Character.MAX_VALUE + 1];
+    private static final int LINEAR_SEARCH_EDGES = 8;
+    private static final int DENSE_DEPTH = 3;
+    private static final int DENSE_TRANSITIONS = 1 << 20;
+    private static final byte WORD_START = 1;
+    private static final byte WORD_END = 2;
+    private static final int CACHED_DEFINITIONS = 4096;
+
+    static {
+        for(int c = 0; c <= Character.MAX_VALUE; c++) {
+            FOLD[c] = Character.toLowerCase((char) c);
+            WORD_CHARS[c] = Character.isLetterOrDigit((char) c);
+        }
+    }
+
+    private final String[] words;
+    private final char[] classes;
+    private final int alphabet;
+    private final int denseStates;
+    private final int[] transitions;
+    private final int[] edgeStart;
+    private final char[] labels;
+    private final int[] targets;
+    private final int[] fail;
+    private final int[] outputStart;
+    private final int[] outputs;
+    private final char[] outputChars;
+    private final int[] outputOffset;
+    private final int[] outputLink;
+    private final int[] firstOutput;
+    private final int[] symbolEndLink;
+    private final int[] firstSymbolEnd;
+    private final int[] depth;
+    private final byte[] boundaries;
+    private final int maxLength;
+
+    private SlangAutomaton(String[] words, char[] classes, int alphabet, int denseStates, int[] edgeStart,
+                           char[] labels, int[] targets, int[] outputStart, int[] outputs, int maxLength) {
+        int states = edgeStart.length - 1;
+        this.words = words;
+        this.classes = classes;
+        this.alphabet = alphabet;
+        this.denseStates = denseStates;
+        this.transitions = new int[denseStates * alphabet];
+        this.edgeStart = edgeStart;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = new int[states];
+        this.outputStart = outputStart;
+        this.outputs = outputs;
+        this.outputOffset = new int[outputs.length];
+        int chars = 0;
+        for(int output = 0; output < outputs.length; output++) {
+            outputOffset[output] = chars;
+            chars += words[outputs[output]].length();
+        }
+        this.outputChars = new char[chars];
+        for(int output = 0; output < outputs.length; output++) {
+            String word = words[outputs[output]];
+            word.getChars(0, word.length(), outputChars, outputOffset[output]);
+        }
+        this.outputLink = new int[states];
+        this.firstOutput = new int[states];
+        this.symbolEndLink = new int[states];
+        this.firstSymbolEnd = new int[states];
+        this.depth = new int[states];
+        this.boundaries = new byte[states];
+        this.maxLength = maxLength;
+    }
+
+    static SlangAutomaton build(Collection<String> slangWords) {
+        String[] words = slangWords.stream().filter(word -> !word.isEmpty()).toArray(String[]::new);
+        String[] folded = new String[words.length];
+        int maxLength = 0;
+        for(int i = 0; i < words.length; i++) {
+            folded[i] = fold(words[i]);
+            maxLength = Math.max(maxLength, words[i].length());
+        }
+        Integer[] order = new Integer[words.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> folded[i]).thenComparing(i -> words[i]));
+
+        // Trie in insertion order. Inserting in sorted order, a word shares its path with the
+        // previous one as far as they agree, so the child to follow is always the last one added.
+        Trie trie = new Trie(words.length + 1);
+        for(int id : order) {
+            String word = folded[id];
+            int node = 0;
+            for(int i = 0; i < word.length(); i++) {
+                node = trie.child(node, word.charAt(i));
+            }
+            trie.terminal(node, id);
+        }
+
+        // Renumber breadth-first, so a state's fail target (shallower) is always laid out before it
+        int states = trie.size;
+        int[] edgeStart = new int[states + 1];
+        char[] labels = new char[states - 1];
+        int[] targets = new int[states - 1];
+        int[] outputStart = new int[states + 1];
+        int[] outputs = new int[words.length];
+        int[] queue = new int[states];
+        int[] level = new int[states];
+        int denseStates = states;
+        char[] labelClasses = new char[Character.MAX_VALUE + 1];
+        int alphabet = 1;
+        int tail = 1;
+        int edges = 0;
+        int outputCount = 0;
+        for(int state = 0; state < states; state++) {
+            int node = queue[state];
+            if(level[state] > DENSE_DEPTH && denseStates == states) {
+                denseStates = state;
+            }
+            edgeStart[state] = edges;
+            outputStart[state] = outputCount;
+            for(int id = trie.firstTerminal[node]; id >= 0; id = trie.nextTerminal[id]) {
+                outputs[outputCount++] = id;
+            }
+            for(int child = trie.firstChild[node]; child >= 0; child = trie.nextSibling[child]) {
+                queue[tail] = child;
+                level[tail] = level[state] + 1;
+                char label = trie.label[child];
+                if(labelClasses[label] == 0) {
+                    labelClasses[label] = (char) alphabet++;
+                }
+                labels[edges] = label;
+                targets[edges++] = tail++;
+            }
+        }
+        edgeStart[states] = edges;
+        outputStart[states] = outputCount;
+        // Breadth-first, so capping the count keeps the shallowest states dense, the root always
+        denseStates = Math.max(1, Math.min(denseStates, DENSE_TRANSITIONS / alphabet));
+        char[] classes = new char[Character.MAX_VALUE + 1];
+        for(int c = 0; c <= Character.MAX_VALUE; c++) {
+            classes[c] = labelClasses[FOLD[c]];
+        }
+
+        SlangAutomaton automaton = new SlangAutomaton(words, classes, alphabet, denseStates,
+                edgeStart, labels, targets, outputStart, outputs, maxLength);
+        automaton.link();
+        return automaton;
+    }
+
+    /**
+     * Fail links, output links and transition rows, state by state in breadth-first order.
+     * Also notes which ends of a state's words are letters or digits, so that a scan can check
+     * word boundaries without going to the words themselves, and links the outputs of words not
+     * ending in one separately: inside a word those are the only ones that can match.
+     */
+    private void link() {
+        for(int state = 0; state < fail.length; state++) {
+            if(hasOutput(state)) {
+                String word = words[outputs[outputStart[state]]];
+                boundaries[state] = (byte) ((isWordChar(word.charAt(0)) ? WORD_START : 0)
+                        | (isWordChar(word.charAt(word.length() - 1)) ? WORD_END : 0));
+            }
+        }
+        for(int state = 0; state < fail.length; state++) {
+            if(state < denseStates) {
+                int row = state * alphabet;
+                if(state != 0) {
+                    System.arraycopy(transitions, fail[state] * alphabet, transitions, row, alphabet);
+                }
+                for(int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+                    transitions[row + classes[labels[edge]]] = targets[edge];
+                }
+            }
+            for(int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+                int target = targets[edge];
+                int suffix = state == 0 ? 0 : next(fail[state], labels[edge]);
+                fail[target] = suffix;
+                depth[target] = depth[state] + 1;
+                outputLink[target] = hasOutput(suffix) ? suffix : outputLink[suffix];
+                firstOutput[target] = hasOutput(target) ? target : outputLink[target];
+                symbolEndLink[target] = isSymbolEnd(suffix) ? suffix : symbolEndLink[suffix];
+                firstSymbolEnd[target] = isSymbolEnd(target) ? target : symbolEndLink[target];
+            }
+        }
+    }
+
+    /**
+     * Whether the exact word is one of the words this automaton was built from
+     */
+    boolean contains(String word) {
+        int state = 0;
+        for(int i = 0; i < word.length() && state >= 0; i++) {
+            state = child(state, FOLD[word.charAt(i)]);
+        }
+        if(state <= 0) {
+            return false;
+        }
+        for(int output = outputStart[state]; output < outputStart[state + 1]; output++) {
+            if(words[outputs[output]].equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A scan over one text, fed in chunks; see SlangDictionary.annotate for what is reported
+     */
+    Scanner scanner(boolean ignoreCase, Function<String, List<String>> definitions, Consumer<SlangMatch> matches) {
+        return new Scanner(ignoreCase, definitions, matches);
+    }
+
+    /**
+     * The state after reading a (folded) char
+     */
+    private int next(int state, char c) {
+        while(state >= denseStates) {
+            int target = child(state, c);
+            if(target >= 0) {
+                return target;
+            }
+            state = fail[state];
+        }
+        return transitions[state * alphabet + classes[c]];
+    }
+
+    private int child(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1];
+        if(high - low <= LINEAR_SEARCH_EDGES) {
+            for(int edge = low; edge < high; edge++) {
+                if(labels[edge] == c) {
+                    return targets[edge];
+                }
+            }
+            return -1;
+        }
+        high--;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if(label < c) {
+                low = mid + 1;
+            } else if(label > c) {
+                high = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private boolean hasOutput(int state) {
+        return outputStart[state] < outputStart[state + 1];
+    }
+
+    private boolean isSymbolEnd(int state) {
+        return hasOutput(state) && (boundaries[state] & WORD_END) == 0;
+    }
+
+    /**
+     * Per-char lower case, so that a folded word keeps its length
+     */
+    private static String fold(String word) {
+        char[] chars = word.toCharArray();
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = FOLD[chars[i]];
+        }
+        return new String(chars);
+    }
+
+    private static boolean isWordChar(char c) {
+        return WORD_CHARS[c];
+    }
+
+    /**
+     * Trie under construction: nodes as parallel arrays with first-child/next-sibling links
+     */
+    private static final class Trie {
+        private char[] label;
+        private int[] firstChild;
+        private int[] lastChild;
+        private int[] nextSibling;
+        private int[] firstTerminal;
+        private int[] lastTerminal;
+        private final int[] nextTerminal;
+        private int size;
+
+        Trie(int words) {
+            int capacity = Math.max(16, words);
+            label = new char[capacity];
+            firstChild = new int[capacity];
+            lastChild = new int[capacity];
+            nextSibling = new int[capacity];
+            firstTerminal = new int[capacity];
+            lastTerminal = new int[capacity];
+            nextTerminal = new int[words];
+            Arrays.fill(nextTerminal, -1);
+            size = 1;
+            clear(0);
+        }
+
+        int child(int node, char c) {
+            int last = lastChild[node];
+            if(last >= 0 && label[last] == c) {
+                return last;
+            }
+            if(size == label.length) {
+                grow();
+            }
+            int child = size++;
+            clear(child);
+            label[child] = c;
+            if(last >= 0) {
+                nextSibling[last] = child;
+            } else {
+                firstChild[node] = child;
+            }
+            lastChild[node] = child;
+            return child;
+        }
+
+        void terminal(int node, int id) {
+            if(lastTerminal[node] >= 0) {
+                nextTerminal[lastTerminal[node]] = id;
+            } else {
+                firstTerminal[node] = id;
+            }
+            lastTerminal[node] = id;
+        }
+
+        private void clear(int node) {
+            firstChild[node] = -1;
+            lastChild[node] = -1;
+            nextSibling[node] = -1;
+            firstTerminal[node] = -1;
+            lastTerminal[node] = -1;
+        }
+
+        private void grow() {
+            int capacity = label.length * 2;
+            label = Arrays.copyOf(label, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            lastChild = Arrays.copyOf(lastChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            firstTerminal = Arrays.copyOf(firstTerminal, capacity);
+            lastTerminal = Arrays.copyOf(lastTerminal, capacity);
+        }
+    }
+
+    /**
+     * Match found by the automaton, not yet known to be part of the answer
+     */
+    private static final class Candidate {
+        private final long start;
+        private final long end;
+        private final String word;
+
+        Candidate(long start, long end, String word) {
+            this.start = start;
+            this.end = end;
+            this.word = word;
+        }
+    }
+
+    /**
+     * One scan over a text. Matches come out of the automaton ordered by where they end, and are
+     * held back until no match found later could start at or before them, then reported
+     * leftmost-longest: of overlapping matches the one starting first wins, then the longest.
+     * The last chars of the text are kept in a ring, for checking word boundaries and case.
+     */
+    final class Scanner {
+        private final boolean ignoreCase;
+        private final Function<String, List<String>> definitions;
+        private final Consumer<SlangMatch> matches;
+        private final char[] recent;
+        private final int recentMask;
+        private final ArrayList<Candidate> pending = new ArrayList<>();
+        private final HashMap<String, List<String>> seen = new HashMap<>();
+        private long pendingStart = Long.MAX_VALUE;
+        private long reportedEnd;
+        private long position;
+        private int state;
+
+        private Scanner(boolean ignoreCase, Function<String, List<String>> definitions, Consumer<SlangMatch> matches) {
+            this.ignoreCase = ignoreCase;
+            this.definitions = definitions;
+            this.matches = matches;
+            this.recent = new char[Integer.highestOneBit(maxLength + 2) << 1];
+            this.recentMask = recent.length - 1;
+        }
+
+        void feed(char[] text, int offset, int length) {
+            char[] classes = SlangAutomaton.this.classes;
+            int[] transitions = SlangAutomaton.this.transitions;
+            int[] firstOutput = SlangAutomaton.this.firstOutput;
+            int[] firstSymbolEnd = SlangAutomaton.this.firstSymbolEnd;
+            int alphabet = SlangAutomaton.this.alphabet;
+            int denseStates = SlangAutomaton.this.denseStates;
+            char[] recent = this.recent;
+            int mask = recentMask;
+            int state = this.state;
+            long position = this.position;
+            for(int i = offset, end = offset + length; i < end; i++) {
+                char c = text[i];
+                if(isWordChar(c)) {
+                    int output = firstSymbolEnd[state];
+                    if(output != 0) {
+                        this.position = position;
+                        collect(output, symbolEndLink);
+                    }
+                } else {
+                    int output = firstOutput[state];
+                    if(output != 0) {
+                        this.position = position;
+                        collect(output, outputLink);
+                    }
+                }
+                recent[(int) position & mask] = c;
+                position++;
+                state = state < denseStates ? transitions[state * alphabet + classes[c]] : next(state, FOLD[c]);
+                if(position - maxLength > pendingStart) {
+                    this.position = position;
+                    reportFinished(false);
+                }
+            }
+            this.state = state;
+            this.position = position;
+        }
+
+        /**
+         * End of the text: report whatever is still held back
+         */
+        void finish() {
+            if(firstOutput[state] != 0) {
+                collect(firstOutput[state], outputLink);
+            }
+            reportFinished(true);
+        }
+
+        /**
+         * Candidates for the words ending at the current position, called once the char after it
+         * is known: all of them before a non-word char, else the ones not ending in a letter or digit.
+         * Words sharing a state differ in case only, so they share the boundary checks.
+         */
+        private void collect(int firstOutput, int[] links) {
+            for(int s = firstOutput; s != 0; s = links[s]) {
+                long start = position - depth[s];
+                if(start < reportedEnd
+                        || start > 0 && (boundaries[s] & WORD_START) != 0 && isWordChar(recent[(int) (start - 1) & recentMask])) {
+                    continue;
+                }
+                candidate(s, start);
+            }
+        }
+
+        /**
+         * The word of a state matching the text at start, if any: with ignoreCase the one spelled
+         * exactly like the text if there is one, else the first
+         */
+        private void candidate(int state, long start) {
+            int first = outputStart[state];
+            int last = outputStart[state + 1];
+            String found = ignoreCase && last - first == 1 ? words[outputs[first]] : null;
+            for(int output = first; found == null && output < last; output++) {
+                if(matchesCase(output, start, depth[state])) {
+                    found = words[outputs[output]];
+                }
+            }
+            if(found == null && ignoreCase) {
+                found = words[outputs[first]];
+            }
+            if(found != null) {
+                hold(new Candidate(start, position, found));
+            }
+        }
+
+        /**
+         * Definitions of a word, remembered for the words seen first in a scan since chat repeats its slang a lot
+         */
+        private List<String> definitions(String word) {
+            List<String> found = seen.get(word);
+            if(found == null) {
+                found = definitions.apply(word);
+                if(found != null && seen.size() < CACHED_DEFINITIONS) {
+                    seen.put(word, found);
+                }
+            }
+            return found;
+        }
+
+        private boolean matchesCase(int output, long start, int length) {
+            int offset = outputOffset[output];
+            for(int i = 0; i < length; i++) {
+                if(recent[(int) (start + i) & recentMask] != outputChars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String text(long start, int length) {
+            char[] chars = new char[length];
+            for(int i = 0; i < length; i++) {
+                chars[i] = recent[(int) (start + i) & recentMask];
+            }
+            return new String(chars);
+        }
+
+        private void hold(Candidate candidate) {
+            pending.add(candidate);
+            pendingStart = Math.min(pendingStart, candidate.start);
+        }
+
+        /**
+         * Report held back matches that no later match can overlap from the left; all of them at the end.
+         * Definitions are only looked up here, and a word removed since the automaton was built is skipped.
+         */
+        private void reportFinished(boolean all) {
+            while(!pending.isEmpty() && (all || position - maxLength > pendingStart)) {
+                Candidate best = null;
+                for(Candidate candidate : pending) {
+                    if(candidate.start == pendingStart && (best == null || candidate.end > best.end)) {
+                        best = candidate;
+                    }
+                }
+                List<String> found = definitions(best.word);
+                if(found == null) {
+                    pending.remove(best);
+                    pendingStart = Long.MAX_VALUE;
+                    for(Candidate candidate : pending) {
+                        pendingStart = Math.min(pendingStart, candidate.start);
+                    }
+                    continue;
+                }
+                reportedEnd = best.end;
+                long nextStart = Long.MAX_VALUE;
+                Iterator<Candidate> iterator = pending.iterator();
+                while(iterator.hasNext()) {
+                    Candidate candidate = iterator.next();
+                    if(candidate.start < reportedEnd) {
+                        iterator.remove();
+                    } else {
+                        nextStart = Math.min(nextStart, candidate.start);
+                    }
+                }
+                pendingStart = nextStart;
+                String text = ignoreCase ? text(best.start, best.word.length()) : best.word;
+                matches.accept(new SlangMatch(best.start, best.end, best.word, text, found));
+            }
+        }
+    }
+}
@@ -0,0 +1,1050 @@
+package com.slangdictionary;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Slang dictionary engine, safe to share between threads.
+ * Exact lookups never lock. Autocomplete and definition searches of three or more characters
+ * run under an optimistic read stamp and only fall back to the read lock when a writer got in
+ * the way, other searches share the read lock. Writers are serialized.
+ */
+public class SlangDictionary {
+    private volatile OverlayDictionary dictionary;
+    private final SearchHistory searchHistory;
+    private final TrendingTracker trending;
+    private final DefinitionIndex tokenIndex;
+    private final TrigramIndex trigramIndex;
+    private final PrefixIndex prefixIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final KeySampler keySampler;
+    private final QuizEngine quizEngine;
+    private final SimilarityIndex similarityIndex;
+    private final SlangAnnotator annotator;
+    private final List<DictionaryIndex> indexes;
+    private volatile boolean indexesStale;
+    private DictionaryJournal journal;
+    private final StampedLock lock;
+    private final QueryCache queryCache;
+    private final Path dataDirectory;
+    // Bumped on every change, under the write lock; cached results of older versions are dropped.
+    // A result must never be stamped newer than its data: read it before or together with the data.
+    private volatile long version;
+    private static final String CHANGES_FILE = "user_changes.sdx";
+    private static final String JOURNAL_FILE = "user_changes.journal";
+    private static final long COMPACT_THRESHOLD = 1 << 20;
+    private static final int IMPORT_BATCH_SIZE = 4096;
+    private static final String ORIGINAL_DICTIONARY = "original_dictionary.sdx";
+    private static final String[] LEGACY_DATA_FILES = {"dictionary.sdx", "dictionary.dat"};
+    private static final String LEGACY_ORIGINAL_DICTIONARY = "original_dictionary.dat";
+    private static final String HISTORY_LOG = "history.log";
+    private static final String LEGACY_HISTORY_FILE = "history.dat";
+    private static final int HISTORY_CAPACITY = 1000;
+    private static final int TRENDING_CAPACITY = 256;
+    private static final int CACHE_ENTRIES = 1024;
+    private static final long CACHE_WEIGHT = 200_000;
+    private static final int ANNOTATE_BUFFER = 8192;
+    // Random picks allowed per quiz question before giving up on words without definitions
+    private static final int QUIZ_DRAWS_PER_QUESTION = 8;
+
+    public SlangDictionary() {
+        this(Paths.get(""));
+    }
+
+    /**
+     * A dictionary that keeps its saved files (original, changes, journal, history) in the given directory
+     */
+    public SlangDictionary(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.dictionary = new OverlayDictionary(Collections.emptyMap());
+        this.searchHistory = new SearchHistory(HISTORY_CAPACITY, true);
+        this.trending = new TrendingTracker(TRENDING_CAPACITY);
+        this.tokenIndex = new DefinitionIndex();
+        this.trigramIndex = new TrigramIndex();
+        this.prefixIndex = new PrefixIndex();
+        this.fuzzyIndex = new FuzzyIndex();
+        this.keySampler = new KeySampler();
+        this.quizEngine = new QuizEngine();
+        this.similarityIndex = new SimilarityIndex();
+        this.annotator = new SlangAnnotator(() -> dictionary.keySet());
+        this.indexes = List.of(tokenIndex, trigramIndex, prefixIndex, fuzzyIndex, keySampler, quizEngine, similarityIndex);
+        this.lock = new StampedLock();
+        this.queryCache = new QueryCache(CACHE_ENTRIES, CACHE_WEIGHT);
+    }
+
+    /**
+     * Load slang words from file, dropping any changes
+     */
+    public void loadDictionaryFromFile(String filePath) {
+        HashMap<String, List<String>> parsed = parseSlangFile(filePath);
+        if(parsed == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            this.dictionary = new OverlayDictionary(freeze(parsed));
+            rebuildIndexes();
+            if(journal != null) {
+                journal.appendReset();
+            }
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+        System.out.println("✓ Loaded " + parsed.size() + " slang words from text file!");
+    }
+
+    /**
+     * Load original dictionary, keeping the changes made on top of it
+     */
+    public void loadOriginalFromFile(String filePath) {
+        HashMap<String, List<String>> parsed = parseSlangFile(filePath);
+        if(parsed == null) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            rebase(freeze(parsed));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        System.out.println("✓ Original dictionary loaded from text file!");
+    }
+
+    /**
+     * Merge another slang file into the live dictionary.
+     * The file is streamed in batches and only the words it adds or extends are reindexed and journaled.
+     * Words the user deleted stay deleted and are reported as conflicting.
+     * The write lock is only held per batch, so searches keep running during an import.
+     */
+    public ImportReport importSlangFile(String filePath) {
+        ImportReport report = new ImportReport();
+        try(BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            SlangFileParser.parseBatches(reader, IMPORT_BATCH_SIZE, batch -> importBatch(batch, report));
+            System.out.println("✓ Imported " + filePath + ": " + report);
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + filePath);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+        return report;
+    }
+
+    private void importBatch(SlangFileParser.Result batch, ImportReport report) {
+        long stamp = lock.writeLock();
+        try {
+            importEntries(batch, report);
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+    }
+
+    private void importEntries(SlangFileParser.Result batch, ImportReport report) {
+        report.recordMalformed(batch.getMalformedCount());
+        // New words are indexed together at the end of the batch, which the prefix index merges in one pass
+        Map<String, List<String>> added = new LinkedHashMap<>();
+        for(Map.Entry<String, List<String>> entry : batch.getEntries().entrySet()) {
+            String word = entry.getKey();
+            List<String> existing = dictionary.get(word);
+            if(existing == null) {
+                if(dictionary.getDeleted().contains(word)) {
+                    report.recordConflicting(word);
+                    continue;
+                }
+                List<String> definitions = new ArrayList<>(new LinkedHashSet<>(entry.getValue()));
+                dictionary.put(word, definitions);
+                added.put(word, definitions);
+                journalPut(word, definitions);
+                report.recordAdded(word);
+                continue;
+            }
+
+            List<String> updated = new ArrayList<>(existing);
+            SlangFileParser.merge(updated, entry.getValue());
+            if(updated.size() == existing.size()) {
+                report.recordUnchanged();
+                continue;
+            }
+            dictionary.put(word, updated);
+            indexUpdate(word, existing, updated);
+            journalPut(word, updated);
+            report.recordMerged(word);
+        }
+        indexAddAll(added);
+    }
+
+    /**
+     * Parse a slang text file, duplicate words get their definitions merged
+     */
+    private HashMap<String, List<String>> parseSlangFile(String filePath) {
+        try {
+            SlangFileParser.Result result = SlangFileParser.parse(Paths.get(filePath));
+            if(result.getDuplicateCount() > 0) {
+                System.out.println("Found and merged " + result.getDuplicateCount() + " duplicate slang words");
+            }
+            if(result.getMalformedCount() > 0) {
+                System.out.println("Skipped " + result.getMalformedCount() + " malformed lines");
+            }
+            return result.getEntries();
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found: " + filePath);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Search by slang word
+     */
+    public List<String> searchBySlangWord(String word) {
+        addToHistory(QueryType.SLANG_WORD, word);
+        return lookup(word);
+    }
+
+    /**
+     * Definitions of a slang word, empty if there is none; nothing is recorded in the history
+     */
+    public List<String> lookup(String word) {
+        return dictionary.getOrDefault(word, Collections.emptyList());
+    }
+
+    /**
+     * Definitions of many slang words in one pass, see lookupAll(Stream, boolean, boolean)
+     */
+    public Map<String, List<String>> lookupAll(Collection<String> words, boolean ignoreCase, boolean parallel) {
+        return lookupAll(words.stream(), ignoreCase, parallel);
+    }
+
+    /**
+     * Definitions of many slang words in one pass, for bulk resolution; nothing is recorded in the history.
+     * The result is read-only, keyed on the words as given, in the order they came in; words that are
+     * not slang words are left out. With ignoreCase a word also matches a slang word differing only
+     * in case (the exact spelling wins if both exist). With parallel the words are resolved on the
+     * common fork/join pool, which only pays off for batches of many thousands of words.
+     */
+    public Map<String, List<String>> lookupAll(Stream<String> words, boolean ignoreCase, boolean parallel) {
+        OverlayDictionary current = dictionary;
+        Function<String, List<String>> resolve = ignoreCase ? word -> {
+            String key = readOptimistic(() -> prefixIndex.findIgnoreCase(word));
+            return key != null ? current.get(key) : null;
+        } : current::get;
+        Stream<String> stream = parallel ? words.parallel() : words.sequential();
+        return Collections.unmodifiableMap(stream
+                .filter(Objects::nonNull)
+                .map(word -> {
+                    List<String> definitions = resolve.apply(word);
+                    return definitions != null ? new AbstractMap.SimpleImmutableEntry<>(word, definitions) : null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, LinkedHashMap::new)));
+    }
+
+    /**
+     * Slang words occurring in a text, see annotate(Reader, boolean, Consumer)
+     */
+    public List<SlangMatch> annotate(CharSequence text, boolean ignoreCase) {
+        List<SlangMatch> matches = new ArrayList<>();
+        SlangAutomaton.Scanner scanner = scanner(ignoreCase, matches::add);
+        char[] buffer = new char[Math.min(ANNOTATE_BUFFER, text.length())];
+        for(int offset = 0; offset < text.length(); offset += buffer.length) {
+            int length = Math.min(buffer.length, text.length() - offset);
+            if(text instanceof String) {
+                ((String) text).getChars(offset, offset + length, buffer, 0);
+            } else {
+                for(int i = 0; i < length; i++) {
+                    buffer[i] = text.charAt(offset + i);
+                }
+            }
+            scanner.feed(buffer, 0, length);
+        }
+        scanner.finish();
+        return matches;
+    }
+
+    /**
+     * Find every slang word in a text streamed from a reader, in one linear pass; nothing is
+     * recorded in the history. Matches are reported in order of position and never overlap: where
+     * slang words overlap, the one starting first wins, then the longest ("OMG LOL" over "OMG").
+     * A slang word starting or ending with a letter or digit only matches there at a word
+     * boundary, so "LOL" is not found in "lollipop", while symbol slang like "%)" matches anywhere.
+     * With ignoreCase a slang word also matches text differing only in case (the exact spelling
+     * wins if both exist). Words added moments ago may be missed while the automaton is rebuilt.
+     * The automaton is built by the first call, which takes a while on a large dictionary.
+     */
+    public void annotate(Reader text, boolean ignoreCase, Consumer<SlangMatch> matches) throws IOException {
+        SlangAutomaton.Scanner scanner = scanner(ignoreCase, matches);
+        char[] buffer = new char[ANNOTATE_BUFFER];
+        int read;
+        while((read = text.read(buffer)) >= 0) {
+            scanner.feed(buffer, 0, read);
+        }
+        scanner.finish();
+    }
+
+    private SlangAutomaton.Scanner scanner(boolean ignoreCase, Consumer<SlangMatch> matches) {
+        // The automaton is immutable and kept apart from the indexes, no lock needed
+        SlangAutomaton automaton = annotator.automaton();
+        OverlayDictionary current = dictionary;
+        return automaton.scanner(ignoreCase, current::get, matches);
+    }
+
+    /**
+     * Slang words starting with a prefix, ignoring case
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        if(prefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String key = "prefix\0" + limit + "\0" + prefix.toLowerCase();
+        return queryCache.get(key, version,
+                () -> Collections.unmodifiableList(readOptimistic(() -> prefixIndex.complete(prefix, limit))), List::size);
+    }
+
+    /**
+     * Slang words within maxDistance (at most 2) typos of a word, closest first
+     */
+    public List<String> suggestSimilar(String word, int maxDistance, int limit) {
+        if(word.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String key = "fuzzy\0" + maxDistance + "\0" + limit + "\0" + word;
+        return queryCache.get(key, version,
+                () -> Collections.unmodifiableList(readLocked(() -> fuzzyIndex.suggest(word, maxDistance, limit))), List::size);
+    }
+
+    /**
+     * Add search history
+     */
+    public void addToHistory(QueryType type, String query) {
+        searchHistory.add(type, query);
+        countSearch(type, query);
+    }
+
+    /**
+     * Count a search towards the trending ones without recording it in the history
+     */
+    public void countSearch(QueryType type, String query) {
+        String normalized = query.trim();
+        trending.record(type, type == QueryType.DEFINITION ? normalized.toLowerCase() : normalized);
+    }
+
+    /**
+     * Up to n of the most searched slang words or definition keywords of this session, most searched first
+     */
+    public List<TrendingTracker.Trend> getTrending(QueryType type, int n) {
+        return trending.top(type, n);
+    }
+
+    /**
+     * Rank the n most searched definition keywords ahead of time, so that searching for them
+     * again with the same number of ranked hits is a cache hit. Not recorded in the history.
+     */
+    public void warmCache(int n, int ranked) {
+        for(TrendingTracker.Trend trend : trending.top(QueryType.DEFINITION, n)) {
+            String needle = trend.getQuery();
+            DefinitionQuery query = definitionQuery(needle);
+            rankedHits(needle, ranked, query);
+        }
+    }
+
+    /**
+     * Get search history, oldest first, at most HISTORY_CAPACITY entries
+     */
+    public List<HistoryEntry> getSearchHistory() {
+        return searchHistory.entries();
+    }
+
+    /**
+     * Clear search history
+     */
+    public void clearHistory() {
+        searchHistory.clear();
+        trending.clear();
+    }
+
+    /**
+     * Search by definition, the result is read-only.
+     * Stops with a CancellationException when the calling thread is interrupted.
+     */
+    public Map<String, List<String>> searchByDefinition(String keyword) {
+        addToHistory(QueryType.DEFINITION, keyword);
+        return findByDefinition(keyword);
+    }
+
+    /**
+     * Search by definition like searchByDefinition, without recording the search in the history
+     */
+    public Map<String, List<String>> findByDefinition(String keyword) {
+        String needle = keyword.toLowerCase();
+        return queryCache.get("definition\0" + needle, version, () -> {
+            DefinitionQuery query = definitionQuery(needle);
+            DefinitionCursor cursor = new DefinitionCursor(query.dictionary(), needle, query.words());
+            Map<String, List<String>> slangs = new LinkedHashMap<>();
+            while(cursor.hasNext()) {
+                Map.Entry<String, List<String>> entry = cursor.next();
+                slangs.put(entry.getKey(), entry.getValue());
+            }
+            return Collections.unmodifiableMap(slangs);
+        }, Map::size);
+    }
+
+    /**
+     * Search by definition, finding the results page by page as the cursor is read.
+     * Only the index lookup may take the read lock, the cursor reads the dictionary lock-free.
+     */
+    public DefinitionCursor openDefinitionSearch(String keyword) {
+        addToHistory(QueryType.DEFINITION, keyword);
+        String needle = keyword.toLowerCase();
+        DefinitionQuery query = definitionQuery(needle);
+        return new DefinitionCursor(query.dictionary(), needle, query.words());
+    }
+
+    /**
+     * Search by definition, most relevant hits first: the best `ranked` hits by BM25 score,
+     * then the remaining hits in index order. Ranking scans every hit but only keeps the best in a heap.
+     */
+    public DefinitionCursor openRankedDefinitionSearch(String keyword, int ranked) {
+        addToHistory(QueryType.DEFINITION, keyword);
+        String needle = keyword.toLowerCase();
+        DefinitionQuery query = definitionQuery(needle);
+        return new DefinitionCursor(query.dictionary(), needle, query.words(), rankedHits(needle, ranked, query));
+    }
+
+    /**
+     * The full scan is in the ranking, only that part is cached.
+     * Stamped with the version the candidates were read at, so a result computed from candidates
+     * read before an edit is never served after it. Package-private for tests.
+     */
+    List<Map.Entry<String, List<String>>> rankedHits(String needle, int ranked, DefinitionQuery query) {
+        return queryCache.get("ranked\0" + ranked + "\0" + needle, query.version(), () -> {
+            DefinitionRanker ranker = readLocked(() -> tokenIndex.ranker(needle));
+            return Collections.unmodifiableList(ranker.top(new DefinitionCursor(query.dictionary(), needle, query.words()), ranked));
+        }, List::size);
+    }
+
+    /**
+     * Candidate words for a definition keyword, with the dictionary and version they were read from
+     */
+    record DefinitionQuery(OverlayDictionary dictionary, long version, Collection<String> words) {
+    }
+
+    /**
+     * The trigram index is arrays only, so keywords of a trigram or longer are looked up on an
+     * optimistic stamp. Shorter ones go to the token index, whose maps need the read lock.
+     * Package-private for tests.
+     */
+    DefinitionQuery definitionQuery(String needle) {
+        DefinitionQuery query = readOptimistic(() -> {
+            List<String> words = trigramIndex.candidates(needle);
+            return words != null ? new DefinitionQuery(dictionary, version, words) : null;
+        });
+        if(query != null) {
+            return query;
+        }
+        return readLocked(() -> {
+            Collection<String> words = tokenIndex.candidates(needle);
+            return new DefinitionQuery(dictionary, version, words != null ? words : dictionary.keySet());
+        });
+    }
+
+    /**
+     * Add new slang word
+     */
+    public boolean addSlangWord(String word, String definition) {
+        long stamp = lock.writeLock();
+        try {
+            if(dictionary.containsKey(word))
+                return false;
+            List<String> defList = List.of(definition);
+            dictionary.put(word, defList);
+            indexAdd(word, defList);
+            journalPut(word, defList);
+            return true;
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+    }
+
+    /**
+     * Add definition to word
+     */
+    public boolean addDefinitionToWord(String word, String definition) {
+        long stamp = lock.writeLock();
+        try {
+            List<String> definitions = dictionary.get(word);
+            if(definitions == null) {
+                return false;
+            }
+            List<String> updated = new ArrayList<>(definitions);
+            updated.add(definition);
+            dictionary.put(word, updated);
+            indexUpdate(word, definitions, updated);
+            journalPut(word, updated);
+            return true;
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+    }
+
+    /**
+     * Edit definition
+     */
+    public boolean editDefinition(String word, int definitionIndex, String newDefinition) {
+        long stamp = lock.writeLock();
+        try {
+            List<String> definitions = dictionary.get(word);
+            if(definitions == null) {
+                return false;
+            }
+            if(definitionIndex < 0 || definitionIndex >= definitions.size()) {
+                return false;
+            }
+            List<String> updated = new ArrayList<>(definitions);
+            updated.set(definitionIndex, newDefinition);
+            dictionary.put(word, updated);
+            indexUpdate(word, definitions, updated);
+            journalPut(word, updated);
+            return true;
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+    }
+    /**
+     * Delete slang word
+     */
+    public boolean deleteSlangWord(String word) {
+        long stamp = lock.writeLock();
+        try {
+            List<String> removed = dictionary.remove(word);
+            if(removed == null) {
+                return false;
+            }
+            indexRemove(word, removed);
+            if(journal != null) {
+                journal.appendDelete(word);
+                compactJournalIfNeeded();
+            }
+            return true;
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+    }
+
+    /**
+     * Run an index query without blocking: first on an optimistic stamp, which a concurrent
+     * writer invalidates (possibly halfway through, hence the catch), then under the read lock.
+     * Only for queries with bounded loops over arrays: a map walked mid-rebalance may never finish.
+     */
+    private <T> T readOptimistic(Supplier<T> query) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0 && !indexesStale) {
+            try {
+                T result = query.get();
+                if(lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Saw a writer's half-done update, retried below
+            }
+        }
+        return readLocked(query);
+    }
+
+    /**
+     * Run an index query under the read lock, building the indexes first if needed
+     */
+    private <T> T readLocked(Supplier<T> query) {
+        while(true) {
+            ensureIndexes();
+            long stamp = lock.readLock();
+            try {
+                if(!indexesStale) {
+                    return query.get();
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Release the write lock, then wait for the journal records appended under it to be on disk.
+     * Waiting outside the lock lets writers arriving meanwhile share the same fsync.
+     */
+    private void unlockWriteAndCommit(long stamp) {
+        DictionaryJournal current = journal;
+        lock.unlockWrite(stamp);
+        if(current == null) {
+            return;
+        }
+        try {
+            current.commit();
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    private void journalPut(String word, List<String> definitions) {
+        if(journal != null) {
+            journal.appendPut(word, definitions);
+            compactJournalIfNeeded();
+        }
+    }
+
+    /**
+     * Fold a large journal into a new changes file in the background
+     */
+    private void compactJournalIfNeeded() {
+        if(journal.size() < COMPACT_THRESHOLD) {
+            return;
+        }
+        try {
+            journal.compact(changesSnapshot(), dataDirectory.resolve(CHANGES_FILE));
+        } catch (IOException e) {
+            System.out.println("Error compacting journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes are built on first use, so loading stays cheap
+     */
+    private void ensureIndexes() {
+        if(!indexesStale) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if(indexesStale) {
+                // The base decodes on every read: decode it once, so the indexes share one String per word and definition
+                Map<String, List<String>> entries = new LinkedHashMap<>(dictionary);
+                for(DictionaryIndex index : indexes) {
+                    index.rebuild(entries);
+                }
+                indexesStale = false;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void indexAdd(String word, List<String> definitions) {
+        version++;
+        annotator.add(word);
+        if(indexesStale) {
+            return;
+        }
+        for(DictionaryIndex index : indexes) {
+            index.add(word, definitions);
+        }
+    }
+
+    private void indexAddAll(Map<String, List<String>> entries) {
+        if(entries.isEmpty()) {
+            return;
+        }
+        version++;
+        for(String word : entries.keySet()) {
+            annotator.add(word);
+        }
+        if(indexesStale) {
+            return;
+        }
+        for(DictionaryIndex index : indexes) {
+            index.addAll(entries);
+        }
+    }
+
+    private void indexUpdate(String word, List<String> oldDefinitions, List<String> newDefinitions) {
+        version++;
+        annotator.add(word);
+        if(indexesStale) {
+            return;
+        }
+        for(DictionaryIndex index : indexes) {
+            index.update(word, oldDefinitions, newDefinitions);
+        }
+    }
+
+    private void indexRemove(String word, List<String> definitions) {
+        version++;
+        if(indexesStale) {
+            return;
+        }
+        for(DictionaryIndex index : indexes) {
+            index.remove(word, definitions);
+        }
+    }
+
+    private void rebuildIndexes() {
+        version++;
+        indexesStale = true;
+        annotator.reload();
+    }
+
+    /**
+     * Get random slang word
+     */
+    public String getRandomSlangWord() {
+        if(dictionary.isEmpty())
+            return null;
+        return readOptimistic(keySampler::random);
+    }
+
+    /**
+     * Up to count distinct random slang words, in random order
+     */
+    public List<String> sampleDistinct(int count) {
+        if(count <= 0) {
+            return new ArrayList<>();
+        }
+        return readOptimistic(() -> keySampler.sample(count));
+    }
+
+    /**
+     * A batch of quiz questions about random slang words, each with up to optionCount distinct options.
+     * With similarDistractors the wrong options are taken from definitions sharing tokens with
+     * the right one where there are any, which makes for harder questions.
+     * The whole batch is generated under one read lock. Words without definitions are skipped,
+     * so a dictionary made up mostly of them may give fewer than count questions.
+     */
+    public List<QuizQuestion> generateQuiz(QuizQuestion.Type type, int count, int optionCount, boolean similarDistractors) {
+        if(count <= 0 || optionCount <= 0 || dictionary.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return readLocked(() -> {
+            List<QuizQuestion> questions = new ArrayList<>(count);
+            for(int draws = 0; questions.size() < count && draws < count * QUIZ_DRAWS_PER_QUESTION; draws++) {
+                String word = keySampler.random();
+                List<String> definitions = word == null ? null : dictionary.get(word);
+                if(definitions == null || definitions.isEmpty()) {
+                    continue;
+                }
+                List<String> preferred = similarDistractors
+                        ? similarityIndex.similar(definitions.get(0), optionCount - 1)
+                        : Collections.emptyList();
+                QuizQuestion question = quizEngine.question(type, word, definitions, optionCount, preferred);
+                if(question != null) {
+                    questions.add(question);
+                }
+            }
+            return questions;
+        });
+    }
+
+    /**
+     * Reset to original dictionary
+     */
+    public void resetDictionary() {
+        long stamp = lock.writeLock();
+        try {
+            // A fresh overlay, so concurrent readers never see a half-cleared one
+            dictionary = new OverlayDictionary(dictionary.getBase());
+            rebuildIndexes();
+            if(journal != null) {
+                journal.appendReset();
+            }
+        } finally {
+            unlockWriteAndCommit(stamp);
+        }
+        System.out.println("Dictionary reset to original!");
+    }
+
+    /**
+     * Save the user's changes to file, a deleted word is stored with no definitions.
+     * With an open journal this is a compaction: the journal is rotated under the write lock
+     * and the snapshot is written without holding it.
+     */
+    public void saveDictionary() {
+        try {
+            long stamp = lock.writeLock();
+            DictionaryJournal current = journal;
+            try {
+                if(current == null) {
+                    writeChanges();
+                } else {
+                    current.compact(changesSnapshot(), dataDirectory.resolve(CHANGES_FILE));
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if(current != null) {
+                current.awaitCompaction();
+            }
+            System.out.println("Dictionary save to file!");
+        } catch (IOException e) {
+            System.out.println("Error saving dictionary: " + e.getMessage());
+        }
+    }
+
+    private void writeChanges() throws IOException {
+        DictionaryFile.write(changesSnapshot(), dataDirectory.resolve(CHANGES_FILE));
+    }
+
+    private Map<String, List<String>> changesSnapshot() {
+        Map<String, List<String>> changes = new HashMap<>(dictionary.getChanged());
+        for(String word : dictionary.getDeleted()) {
+            changes.put(word, Collections.emptyList());
+        }
+        return changes;
+    }
+
+    /**
+     * Save original dictionary to file
+     */
+    public void saveOriginalDictionary() {
+        if(dictionary.getBase() instanceof MappedDictionary) {
+            return;
+        }
+        try {
+            DictionaryFile.write(dictionary.getBase(), dataDirectory.resolve(ORIGINAL_DICTIONARY));
+            System.out.println("Original dictionary saved to file!");
+        } catch (IOException e) {
+            System.out.println("Error saving original dictionary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the user's changes on top of the original dictionary: the last changes file,
+     * then whatever the journal recorded after it. Later changes are journaled as they happen.
+     * The journal is reopened even if the changes file cannot be read, so that later changes
+     * are still kept.
+     */
+    public boolean loadDictionary() {
+        long stamp = lock.writeLock();
+        try {
+            closeJournal();
+            boolean loaded;
+            try {
+                loaded = loadChanges();
+            } catch (IOException e) {
+                System.out.println("Error loading dictionary: " + e.getMessage());
+                loaded = false;
+            }
+            try {
+                journal = DictionaryJournal.open(dataDirectory.resolve(JOURNAL_FILE), dictionary);
+            } catch (IOException e) {
+                System.out.println("Error opening journal, changes will not be saved: " + e.getMessage());
+                loaded = false;
+            }
+            rebuildIndexes();
+            return loaded;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean loadChanges() throws IOException {
+        Path path = dataDirectory.resolve(CHANGES_FILE);
+        if(!Files.exists(path)) {
+            return migrateFullDictionary();
+        }
+        // Read rather than mapped: a live mapping would keep the file from being replaced on save
+        for(Map.Entry<String, List<String>> entry : DictionaryFile.read(path).entrySet()) {
+            if(entry.getValue().isEmpty()) {
+                dictionary.remove(entry.getKey());
+            } else {
+                dictionary.put(entry.getKey(), entry.getValue());
+            }
+        }
+        System.out.println("Dictionary loaded from cached file!");
+        return true;
+    }
+
+    /**
+     * Flush and close the journal
+     */
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            closeJournal();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void closeJournal() {
+        if(journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * Load original dictionary from file
+     */
+    public boolean loadOriginalDictionary() {
+        try {
+            MappedDictionary loaded = openOrMigrate(dataDirectory.resolve(ORIGINAL_DICTIONARY), dataDirectory.resolve(LEGACY_ORIGINAL_DICTIONARY));
+            if(loaded == null) {
+                System.out.println("No cached original dictionary found.");
+                return false;
+            }
+            long stamp = lock.writeLock();
+            try {
+                rebase(loaded);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            System.out.println("Original dictionary loaded from cache!");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error loading original dictionary: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Turn a full dictionary saved by an older version into changes against the original
+     */
+    private boolean migrateFullDictionary() throws IOException {
+        for(String legacy : LEGACY_DATA_FILES) {
+            Path legacyPath = dataDirectory.resolve(legacy);
+            if(!Files.exists(legacyPath)) {
+                continue;
+            }
+            Map<String, List<String>> full = legacy.endsWith(".dat")
+                    ? DictionaryFile.readLegacy(legacyPath)
+                    : DictionaryFile.open(legacyPath);
+            for(String word : new ArrayList<>(dictionary.getBase().keySet())) {
+                if(!full.containsKey(word)) {
+                    dictionary.remove(word);
+                }
+            }
+            for(Map.Entry<String, List<String>> entry : full.entrySet()) {
+                dictionary.put(entry.getKey(), entry.getValue());
+            }
+            rebuildIndexes();
+            writeChanges();
+            System.out.println("Migrated " + legacyPath + " to " + CHANGES_FILE);
+            return true;
+        }
+        System.out.println("No saved changes found.");
+        return false;
+    }
+
+    /**
+     * Swap in a new original dictionary and replay the current changes on top of it
+     */
+    private void rebase(Map<String, List<String>> base) {
+        OverlayDictionary rebased = new OverlayDictionary(base);
+        for(String word : dictionary.getDeleted()) {
+            rebased.remove(word);
+        }
+        for(Map.Entry<String, List<String>> entry : dictionary.getChanged().entrySet()) {
+            rebased.put(entry.getKey(), entry.getValue());
+        }
+        dictionary = rebased;
+        rebuildIndexes();
+    }
+
+    private static Map<String, List<String>> freeze(HashMap<String, List<String>> parsed) {
+        return CompactDictionary.copyOf(parsed);
+    }
+
+    /**
+     * Map a dictionary file, converting an old serialized .dat file first if that is all there is
+     */
+    private MappedDictionary openOrMigrate(Path path, Path legacyPath) throws IOException {
+        if(!Files.exists(path)) {
+            if(!Files.exists(legacyPath)) {
+                return null;
+            }
+            DictionaryFile.write(DictionaryFile.readLegacy(legacyPath), path);
+            System.out.println("Migrated " + legacyPath + " to " + path);
+        }
+        return DictionaryFile.open(path);
+    }
+
+    /**
+     * Save history to file
+     */
+    public void saveHistory() {
+        try {
+            searchHistory.save(dataDirectory.resolve(HISTORY_LOG));
+            System.out.println("History save to file!");
+        } catch (IOException e) {
+            System.out.println("Error saving history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load history from file, converting the serialized list of an older version if that is all there is
+     */
+    public boolean loadHistory() {
+        try {
+            if(searchHistory.load(dataDirectory.resolve(HISTORY_LOG))) {
+                return true;
+            }
+            if(!Files.exists(dataDirectory.resolve(LEGACY_HISTORY_FILE))) {
+                return false;
+            }
+            searchHistory.addAll(readLegacyHistory(dataDirectory.resolve(LEGACY_HISTORY_FILE)));
+            searchHistory.save(dataDirectory.resolve(HISTORY_LOG));
+            System.out.println("Migrated " + LEGACY_HISTORY_FILE + " to " + HISTORY_LOG);
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error loading history: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Entries of the old "Slang word: ..." / "Definition: ..." history, without timestamps
+     */
+    @SuppressWarnings("unchecked")
+    private static List<HistoryEntry> readLegacyHistory(Path path) throws IOException, ClassNotFoundException {
+        List<HistoryEntry> entries = new ArrayList<>();
+        try(ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(path))) {
+            for(String line : (List<String>) ois.readObject()) {
+                for(QueryType type : QueryType.values()) {
+                    String prefix = type.getLabel() + ": ";
+                    if(line.startsWith(prefix)) {
+                        entries.add(new HistoryEntry(type, line.substring(prefix.length()), 0));
+                        break;
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Hit, miss and eviction counts of the query result cache
+     */
+    public QueryCache.Stats getCacheStats() {
+        return queryCache.getStats();
+    }
+
+    /**
+     * Drop every cached query result, the next search of each query runs against the indexes again
+     */
+    public void clearCache() {
+        queryCache.clear();
+    }
+
+    // Getters
+    public int getTotalWords() {
+        return dictionary.size();
+    }
+
+    /**
+     * Read-only view of the current dictionary
+     */
+    public Map<String, List<String>> getDictionary() {
+        return Collections.unmodifiableMap(dictionary);
+    }
+}
+
@@ -0,0 +1,304 @@
+package com.slangdictionary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Parser for slang files ("word`definition| definition" per line).
+ * Large files are cut into chunks at line breaks, parsed on a fork-join pool
+ * and merged back in file order, so the result does not depend on scheduling.
+ */
+public final class SlangFileParser {
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final String HEADER_MARKER = "Slag";
+
+    private SlangFileParser() {
+    }
+
+    /**
+     * Parsed entries in file order, with duplicate words merged
+     */
+    public static final class Result {
+        private final LinkedHashMap<String, List<String>> entries;
+        private int duplicateCount;
+        private int malformedCount;
+
+        Result() {
+            this.entries = new LinkedHashMap<>();
+        }
+
+        public LinkedHashMap<String, List<String>> getEntries() {
+            return entries;
+        }
+
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        /**
+         * Lines left out: no backtick, or no definitions after it
+         */
+        public int getMalformedCount() {
+            return malformedCount;
+        }
+
+        void add(String word, List<String> definitions) {
+            List<String> existing = entries.putIfAbsent(word, definitions);
+            if(existing != null) {
+                duplicateCount++;
+                merge(existing, definitions);
+            }
+        }
+
+        void addAll(Result other) {
+            for(Map.Entry<String, List<String>> entry : other.entries.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+            duplicateCount += other.duplicateCount;
+            malformedCount += other.malformedCount;
+        }
+    }
+
+    /**
+     * Parse a whole file
+     */
+    public static Result parse(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<ChunkTask> tasks = new ArrayList<>(bounds.length - 1);
+            for(int i = 0; i + 1 < bounds.length; i++) {
+                tasks.add(new ChunkTask(channel, bounds[i], bounds[i + 1]));
+            }
+            for(ChunkTask task : tasks) {
+                ForkJoinPool.commonPool().execute(task);
+            }
+
+            // Merge in file order, into the first chunk so its entries are not copied
+            Result result = tasks.get(0).join();
+            for(int i = 1; i < tasks.size(); i++) {
+                result.addAll(tasks.get(i).join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Parse a stream line by line, handing the entries over in batches of about batchSize words
+     */
+    public static void parseBatches(BufferedReader reader, int batchSize, Consumer<Result> consumer) throws IOException {
+        Result batch = new Result();
+        boolean firstLine = true;
+        String line;
+        while((line = reader.readLine()) != null) {
+            if(isBlank(line, 0, line.length())) {
+                continue;
+            }
+            if(!(firstLine && isHeader(line, 0, line.length()))) {
+                parseLine(line, 0, line.length(), batch);
+            }
+            firstLine = false;
+            if(batch.entries.size() >= batchSize) {
+                consumer.accept(batch);
+                batch = new Result();
+            }
+        }
+        if(!batch.entries.isEmpty() || batch.malformedCount > 0) {
+            consumer.accept(batch);
+        }
+    }
+
+    /**
+     * Parse one non-blank line, returns false (and counts it) for a malformed line: one without
+     * a backtick, or whose definitions are only pipes ("word`|"). Storing the latter would give a
+     * word with no definitions, which the changes file reads back as a deletion.
+     */
+    public static boolean parseLine(CharSequence text, int start, int end, Result into) {
+        int tick = -1;
+        for(int i = start; i < end; i++) {
+            if(text.charAt(i) == '`') {
+                tick = i;
+                break;
+            }
+        }
+        List<String> definitions = tick < 0 ? Collections.emptyList() : splitDefinitions(text, tick + 1, end);
+        if(definitions.isEmpty()) {
+            into.malformedCount++;
+            return false;
+        }
+        into.add(trimmed(text, start, tick), definitions);
+        return true;
+    }
+
+    /**
+     * Whether a line is the "Slag`Meaning" header
+     */
+    public static boolean isHeader(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString().contains(HEADER_MARKER);
+    }
+
+    /**
+     * Split "a| b|c" on pipes the way String.split does: trailing empty pieces are dropped
+     */
+    private static List<String> splitDefinitions(CharSequence text, int start, int end) {
+        // Same range as trimming the definitions before splitting
+        while(start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while(end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        List<String> definitions = new ArrayList<>(2);
+        if(start == end) {
+            definitions.add("");
+            return definitions;
+        }
+        int pieceStart = start;
+        int lastNonEmpty = 0;
+        for(int i = start; i <= end; i++) {
+            if(i == end || text.charAt(i) == '|') {
+                definitions.add(trimmed(text, pieceStart, i));
+                if(i > pieceStart) {
+                    lastNonEmpty = definitions.size();
+                }
+                pieceStart = i + 1;
+            }
+        }
+        if(lastNonEmpty < definitions.size()) {
+            definitions.subList(lastNonEmpty, definitions.size()).clear();
+        }
+        return definitions;
+    }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        for(int i = start; i < end; i++) {
+            if(text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimmed(CharSequence text, int start, int end) {
+        while(start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while(end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Merge definitions, keeping the first occurrence of each
+     */
+    static void merge(List<String> existing, List<String> definitions) {
+        Set<String> seen = new HashSet<>(existing);
+        for(String def : definitions) {
+            if(seen.add(def)) {
+                existing.add(def);
+            }
+        }
+    }
+
+    /**
+     * Chunk start offsets plus the file size, every chunk after the first starts right after a line break
+     */
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = CHUNK_SIZE;
+        while(next < size) {
+            long pos = next;
+            long boundary = size;
+            search:
+            while(pos < size) {
+                probe.clear();
+                int read = channel.read(probe, pos);
+                if(read <= 0) {
+                    break;
+                }
+                for(int i = 0; i < read; i++) {
+                    if(probe.get(i) == '\n') {
+                        boundary = pos + i + 1;
+                        break search;
+                    }
+                }
+                pos += read;
+            }
+            if(boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            next = boundary + CHUNK_SIZE;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the lines between two chunk bounds
+     */
+    private static final class ChunkTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result();
+            if(start >= end) {
+                return result;
+            }
+            String text;
+            try {
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                text = StandardCharsets.UTF_8.decode(bytes).toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            boolean firstLine = start == 0;
+            int length = text.length();
+            int lineStart = 0;
+            while(lineStart < length) {
+                int newline = text.indexOf('\n', lineStart);
+                if(newline < 0) {
+                    newline = length;
+                }
+                int lineEnd = newline > lineStart && text.charAt(newline - 1) == '\r' ? newline - 1 : newline;
+                if(!isBlank(text, lineStart, lineEnd)) {
+                    if(!(firstLine && isHeader(text, lineStart, lineEnd))) {
+                        parseLine(text, lineStart, lineEnd, result);
+                    }
+                    firstLine = false;
+                }
+                lineStart = newline + 1;
+            }
+            return result;
+        }
+    }
+}
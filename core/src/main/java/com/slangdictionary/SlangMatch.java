@@ -0,0 +1,59 @@
+package com.slangdictionary;
+
+import java.util.List;
+
+/**
+ * A slang word found in a text, with its position as char offsets from the start of the text
+ */
+public class SlangMatch {
+    private final long start;
+    private final long end;
+    private final String word;
+    private final String text;
+    private final List<String> definitions;
+
+    public SlangMatch(long start, long end, String word, String text, List<String> definitions) {
+        this.start = start;
+        this.end = end;
+        this.word = word;
+        this.text = text;
+        this.definitions = definitions;
+    }
+
+    /**
+     * Offset of the first char of the match
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Offset just past the last char of the match
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * The slang word as it is in the dictionary
+     */
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * The matched text, which differs from the slang word in case only
+     */
+    public String getText() {
+        return text;
+    }
+
+    public List<String> getDefinitions() {
+        return definitions;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ") " + text + " -> " + definitions;
+    }
+}
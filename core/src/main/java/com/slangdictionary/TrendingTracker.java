@@ -0,0 +1,168 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Most searched queries per query type, counted with the Space-Saving algorithm.
+ *
+ * Each type keeps at most capacity counters. A query without a counter takes over the
+ * smallest one and inherits its count, so counts may be overestimated by at most that
+ * inherited error, but any query searched more than (total searches / capacity) times is
+ * guaranteed to be tracked. Counters sit in a min-heap, so a search costs O(log capacity).
+ */
+public class TrendingTracker {
+    private final int capacity;
+    private final EnumMap<QueryType, SpaceSaving> trackers;
+
+    public TrendingTracker(int capacity) {
+        this.capacity = capacity;
+        this.trackers = new EnumMap<>(QueryType.class);
+        for(QueryType type : QueryType.values()) {
+            trackers.put(type, new SpaceSaving());
+        }
+    }
+
+    /**
+     * A tracked query with its estimated count; the true count lies in [count - error, count]
+     */
+    public static final class Trend {
+        private final String query;
+        private final long count;
+        private final long error;
+
+        Trend(String query, long count, long error) {
+            this.query = query;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return query + " (" + count + ")";
+        }
+    }
+
+    public synchronized void record(QueryType type, String query) {
+        trackers.get(type).offer(query);
+    }
+
+    /**
+     * Up to n queries of a type, most searched first.
+     * Ordered by guaranteed count (count - error), so that a query that only just took over
+     * a counter does not show up ahead of ones that have been counted all along.
+     */
+    public synchronized List<Trend> top(QueryType type, int n) {
+        return trackers.get(type).top(n);
+    }
+
+    public synchronized void clear() {
+        for(QueryType type : QueryType.values()) {
+            trackers.put(type, new SpaceSaving());
+        }
+    }
+
+    private static final class Counter {
+        private final String query;
+        private long count;
+        private long error;
+        private int heapIndex;
+
+        Counter(String query, long count, long error) {
+            this.query = query;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final class SpaceSaving {
+        private final HashMap<String, Counter> counters = new HashMap<>();
+        private final Counter[] heap = new Counter[capacity];
+        private int size;
+
+        void offer(String query) {
+            Counter counter = counters.get(query);
+            if(counter != null) {
+                counter.count++;
+                siftDown(counter.heapIndex);
+                return;
+            }
+            if(size < heap.length) {
+                counter = new Counter(query, 1, 0);
+                counter.heapIndex = size;
+                heap[size++] = counter;
+                counters.put(query, counter);
+                siftUp(counter.heapIndex);
+                return;
+            }
+            // Replace the smallest counter, the newcomer may have been counted there before
+            Counter min = heap[0];
+            counters.remove(min.query);
+            counter = new Counter(query, min.count + 1, min.count);
+            counter.heapIndex = 0;
+            heap[0] = counter;
+            counters.put(query, counter);
+            siftDown(0);
+        }
+
+        List<Trend> top(int n) {
+            Counter[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted, Comparator.comparingLong((Counter c) -> c.error - c.count)
+                    .thenComparingLong(c -> -c.count).thenComparing(c -> c.query));
+            List<Trend> trends = new ArrayList<>(Math.min(n, size));
+            for(int i = 0; i < sorted.length && trends.size() < n; i++) {
+                trends.add(new Trend(sorted[i].query, sorted[i].count, sorted[i].error));
+            }
+            return trends;
+        }
+
+        private void siftUp(int i) {
+            while(i > 0) {
+                int parent = (i - 1) / 2;
+                if(heap[parent].count <= heap[i].count) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while(true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if(left < size && heap[left].count < heap[smallest].count) {
+                    smallest = left;
+                }
+                if(right < size && heap[right].count < heap[smallest].count) {
+                    smallest = right;
+                }
+                if(smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            Counter first = heap[a];
+            heap[a] = heap[b];
+            heap[b] = first;
+            heap[a].heapIndex = a;
+            heap[b].heapIndex = b;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.slangdictionary;
+
+import java.util.*;
+
+/**
+ * Trigram postings over lowercased definitions, for substring search.
+ * Slang words get dense int ids and each posting list is a sorted int array.
+ */
+public class TrigramIndex implements DictionaryIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final HashMap<String, Integer> ids;
+    private String[] words;
+    private int nextId;
+    private int retired;
+
+    // Open addressing table: trigram -> posting list
+    private long[] gramKeys;
+    private int[][] gramPostings;
+    private int[] gramSizes;
+    private int gramCount;
+
+    public TrigramIndex() {
+        this.ids = new HashMap<>();
+        this.words = new String[INITIAL_CAPACITY];
+        this.gramKeys = new long[INITIAL_CAPACITY];
+        this.gramPostings = new int[INITIAL_CAPACITY][];
+        this.gramSizes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Index a slang word under a fresh id, so every posting list stays sorted
+     */
+    @Override
+    public void add(String word, List<String> definitions) {
+        Integer old = ids.get(word);
+        if(old != null) {
+            retire(old);
+        }
+        int id = nextId++;
+        if(id == words.length) {
+            words = Arrays.copyOf(words, id * 2);
+        }
+        words[id] = word;
+        ids.put(word, id);
+
+        for(long gram : distinctGrams(definitions)) {
+            append(gram, id);
+        }
+    }
+
+    /**
+     * Retire the id of a slang word, its stale postings are dropped on compaction
+     */
+    @Override
+    public void remove(String word, List<String> definitions) {
+        Integer id = ids.remove(word);
+        if(id != null) {
+            retire(id);
+        }
+        if(retired > INITIAL_CAPACITY && retired > ids.size()) {
+            compact();
+        }
+    }
+
+    @Override
+    public void rebuild(Map<String, List<String>> dictionary) {
+        ids.clear();
+        words = new String[Math.max(INITIAL_CAPACITY, dictionary.size())];
+        nextId = 0;
+        retired = 0;
+        gramKeys = new long[INITIAL_CAPACITY];
+        gramPostings = new int[INITIAL_CAPACITY][];
+        gramSizes = new int[INITIAL_CAPACITY];
+        gramCount = 0;
+        for(Map.Entry<String, List<String>> entry : dictionary.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Slang words whose definitions contain every trigram of the lowercased keyword.
+     * Callers still have to verify each candidate.
+     * Returns null when the keyword is shorter than a trigram.
+     */
+    public List<String> candidates(String needle) {
+        if(needle.length() < 3) {
+            return null;
+        }
+        long[] grams = grams(needle);
+        int[][] lists = new int[grams.length][];
+        int[] sizes = new int[grams.length];
+        for(int i = 0; i < grams.length; i++) {
+            int slot = find(grams[i]);
+            if(gramPostings[slot] == null) {
+                return new ArrayList<>();
+            }
+            lists[i] = gramPostings[slot];
+            sizes[i] = gramSizes[slot];
+        }
+
+        // Start from the rarest trigram and intersect the others into it
+        Integer[] order = new Integer[grams.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+
+        int[] result = Arrays.copyOf(lists[order[0]], sizes[order[0]]);
+        int size = result.length;
+        for(int k = 1; k < order.length && size > 0; k++) {
+            size = intersect(result, size, lists[order[k]], sizes[order[k]]);
+        }
+
+        List<String> candidates = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            String word = words[result[i]];
+            if(word != null) {
+                candidates.add(word);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Intersect b into the first size elements of a, returns the new size
+     */
+    private static int intersect(int[] a, int size, int[] b, int bSize) {
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while(i < size && j < bSize) {
+            if(a[i] < b[j]) {
+                i++;
+            } else if(a[i] > b[j]) {
+                j++;
+            } else {
+                a[out++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    private void retire(int id) {
+        words[id] = null;
+        retired++;
+    }
+
+    /**
+     * Renumber live ids densely and drop retired ones from every posting list
+     */
+    private void compact() {
+        int[] remap = new int[nextId];
+        int live = 0;
+        for(int id = 0; id < nextId; id++) {
+            if(words[id] != null) {
+                remap[id] = live;
+                words[live] = words[id];
+                ids.put(words[id], live);
+                live++;
+            } else {
+                remap[id] = -1;
+            }
+        }
+        Arrays.fill(words, live, nextId, null);
+
+        for(int slot = 0; slot < gramKeys.length; slot++) {
+            int[] posting = gramPostings[slot];
+            if(posting == null) {
+                continue;
+            }
+            int size = 0;
+            for(int i = 0; i < gramSizes[slot]; i++) {
+                int id = remap[posting[i]];
+                if(id >= 0) {
+                    posting[size++] = id;
+                }
+            }
+            gramSizes[slot] = size;
+        }
+        nextId = live;
+        retired = 0;
+    }
+
+    private void append(long gram, int id) {
+        int slot = find(gram);
+        int[] posting = gramPostings[slot];
+        if(posting == null) {
+            gramKeys[slot] = gram;
+            gramPostings[slot] = new int[]{id};
+            gramSizes[slot] = 1;
+            if(++gramCount * 2 > gramKeys.length) {
+                grow();
+            }
+            return;
+        }
+        int size = gramSizes[slot];
+        if(size == posting.length) {
+            posting = Arrays.copyOf(posting, size + (size >> 1) + 1);
+            gramPostings[slot] = posting;
+        }
+        posting[size] = id;
+        gramSizes[slot] = size + 1;
+    }
+
+    private int find(long gram) {
+        int mask = gramKeys.length - 1;
+        int slot = Long.hashCode(gram * 0x9E3779B97F4A7C15L) & mask;
+        while(gramPostings[slot] != null && gramKeys[slot] != gram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = gramKeys;
+        int[][] oldPostings = gramPostings;
+        int[] oldSizes = gramSizes;
+        gramKeys = new long[oldKeys.length * 2];
+        gramPostings = new int[oldKeys.length * 2][];
+        gramSizes = new int[oldKeys.length * 2];
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldPostings[i] != null) {
+                int slot = find(oldKeys[i]);
+                gramKeys[slot] = oldKeys[i];
+                gramPostings[slot] = oldPostings[i];
+                gramSizes[slot] = oldSizes[i];
+            }
+        }
+    }
+
+    private static long[] distinctGrams(List<String> definitions) {
+        int total = 0;
+        long[][] perDef = new long[definitions.size()][];
+        for(int i = 0; i < perDef.length; i++) {
+            perDef[i] = grams(definitions.get(i).toLowerCase());
+            total += perDef[i].length;
+        }
+        long[] all = new long[total];
+        int pos = 0;
+        for(long[] grams : perDef) {
+            System.arraycopy(grams, 0, all, pos, grams.length);
+            pos += grams.length;
+        }
+        return dedupe(all, all.length);
+    }
+
+    /**
+     * Distinct trigrams of a string, packed as three 16-bit chars
+     */
+    private static long[] grams(String text) {
+        int count = Math.max(0, text.length() - 2);
+        long[] grams = new long[count];
+        for(int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return dedupe(grams, count);
+    }
+
+    private static long[] dedupe(long[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int size = 0;
+        for(int i = 0; i < count; i++) {
+            if(size == 0 || values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
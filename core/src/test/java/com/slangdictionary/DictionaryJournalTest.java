@@ -0,0 +1,157 @@
+package com.slangdictionary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryJournalTest {
+    @TempDir
+    Path dir;
+
+    private Path journalPath() {
+        return dir.resolve("changes.journal");
+    }
+
+    private OverlayDictionary replayed() throws IOException {
+        OverlayDictionary dictionary = new OverlayDictionary(Map.of("BASE", List.of("base")));
+        DictionaryJournal.open(journalPath(), dictionary).close();
+        return dictionary;
+    }
+
+    @Test
+    void replaysCommittedRecords() throws IOException {
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("LOL", List.of("Laughing out loud"));
+        journal.appendPut("BRB", List.of("Be right back", "Bathroom break"));
+        journal.appendDelete("BASE");
+        journal.commit();
+        // No close, as after a crash: committed records are on disk already
+
+        OverlayDictionary dictionary = replayed();
+        assertEquals(List.of("Laughing out loud"), dictionary.get("LOL"));
+        assertEquals(List.of("Be right back", "Bathroom break"), dictionary.get("BRB"));
+        assertNull(dictionary.get("BASE"));
+    }
+
+    @Test
+    void truncatesTornAndZeroFilledTails() throws IOException {
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("LOL", List.of("Laughing out loud"));
+        journal.close();
+        long valid = Files.size(journalPath());
+
+        byte[][] tails = {
+                new byte[4096],
+                {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf0, 1, 2, 3},
+                {0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 1, 2, 3, 4, 5, 6, 7, 8},
+                {0, 0, 0, 3, 9, 9, 9, 0, 0, 0, 0},
+        };
+        for(byte[] tail : tails) {
+            Files.write(journalPath(), tail, StandardOpenOption.APPEND);
+            OverlayDictionary dictionary = replayed();
+            assertEquals(List.of("Laughing out loud"), dictionary.get("LOL"));
+            assertEquals(valid, Files.size(journalPath()));
+        }
+    }
+
+    @Test
+    void cutsTheRecordTornInTheMiddle() throws IOException {
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("LOL", List.of("Laughing out loud"));
+        journal.sync();
+        long valid = Files.size(journalPath());
+        journal.appendPut("BRB", List.of("Be right back"));
+        journal.close();
+
+        try(var channel = Files.newByteChannel(journalPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(journalPath()) - 3);
+        }
+        OverlayDictionary dictionary = replayed();
+        assertEquals(List.of("Laughing out loud"), dictionary.get("LOL"));
+        assertNull(dictionary.get("BRB"));
+        assertEquals(valid, Files.size(journalPath()));
+    }
+
+    @Test
+    void keepsDefinitionsLongerThanWriteUtfAllows() throws IOException {
+        String longDefinition = "é".repeat(70_000);
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("LONG", List.of(longDefinition));
+        journal.close();
+
+        assertEquals(List.of(longDefinition), replayed().get("LONG"));
+    }
+
+    @Test
+    void replaysRecordsOfTheOlderFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(1);
+        payload.writeUTF("OLD");
+        payload.writeInt(1);
+        payload.writeUTF("Written by an older version");
+        Files.write(journalPath(), frame(bytes.toByteArray()));
+
+        assertEquals(List.of("Written by an older version"), replayed().get("OLD"));
+    }
+
+    @Test
+    void keepsTheRecordsOfAFailedCompaction() throws IOException {
+        // A non-empty directory where the snapshot should go makes writing it fail
+        Path snapshot = dir.resolve("snapshot.sdx");
+        Files.createDirectories(snapshot.resolve("blocker"));
+
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("FIRST", List.of("one"));
+        journal.compact(Map.of("FIRST", List.of("one")), snapshot);
+        assertThrows(IOException.class, journal::awaitCompaction);
+
+        journal.appendPut("SECOND", List.of("two"));
+        // The rotated journal of the failed run is still there and must not be replaced
+        journal.compact(Map.of("FIRST", List.of("one"), "SECOND", List.of("two")), snapshot);
+        assertThrows(IOException.class, journal::awaitCompaction);
+
+        journal.appendPut("THIRD", List.of("three"));
+        journal.close();
+
+        OverlayDictionary dictionary = replayed();
+        assertEquals(List.of("one"), dictionary.get("FIRST"));
+        assertEquals(List.of("two"), dictionary.get("SECOND"));
+        assertEquals(List.of("three"), dictionary.get("THIRD"));
+    }
+
+    @Test
+    void deletesTheRotatedJournalOnceTheSnapshotIsWritten() throws IOException {
+        Path snapshot = dir.resolve("snapshot.sdx");
+        DictionaryJournal journal = DictionaryJournal.open(journalPath(), new OverlayDictionary(Map.of()));
+        journal.appendPut("FIRST", List.of("one"));
+        journal.compact(Map.of("FIRST", List.of("one")), snapshot);
+        journal.awaitCompaction();
+        journal.close();
+
+        assertFalse(Files.exists(dir.resolve("changes.journal.compacting")));
+        assertEquals(List.of("one"), DictionaryFile.read(snapshot).get("FIRST"));
+        assertEquals(0, Files.size(journalPath()));
+    }
+
+    private static byte[] frame(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+}
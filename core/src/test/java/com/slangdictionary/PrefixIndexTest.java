@@ -0,0 +1,49 @@
+package com.slangdictionary;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    @Test
+    void addAllMatchesAddingOneByOne() {
+        Random random = new Random(7);
+        Map<String, List<String>> base = new HashMap<>();
+        for(int i = 0; i < 2000; i++) {
+            base.put(randomWord(random), List.of("x"));
+        }
+        PrefixIndex batched = new PrefixIndex();
+        PrefixIndex single = new PrefixIndex();
+        batched.rebuild(base);
+        single.rebuild(base);
+
+        for(int round = 0; round < 5; round++) {
+            Map<String, List<String>> batch = new LinkedHashMap<>();
+            for(int i = 0; i < 700; i++) {
+                // Some words are in the index already, some differ from others only in case
+                String word = random.nextInt(5) == 0 ? base.keySet().iterator().next() : randomWord(random);
+                batch.put(word, List.of("y"));
+            }
+            batched.addAll(batch);
+            for(String word : batch.keySet()) {
+                single.add(word, List.of("y"));
+            }
+            for(String prefix : List.of("", "a", "B", "ab", "zz", "Qx")) {
+                assertEquals(single.complete(prefix, 100_000), batched.complete(prefix, 100_000), prefix);
+            }
+        }
+        assertEquals(single.findIgnoreCase("AB"), batched.findIgnoreCase("AB"));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 1 + random.nextInt(4);
+        for(int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(4));
+            sb.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.slangdictionary;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlangAutomatonTest {
+    @Test
+    void findsWholeWordsOnly() {
+        List<String> words = List.of("lol", "LOL", ":)", "brb");
+        String text = "lollipop lol, LOL! xlol lol1 a:)b :) brb";
+
+        assertEquals(List.of("9-12 lol", "14-17 LOL", "30-32 :)", "34-36 :)", "37-40 brb"), scan(words, text, false, 1));
+        assertEquals(bruteForce(words, text, false), scan(words, text, false, 1));
+        assertEquals(bruteForce(words, text, true), scan(words, text, true, 1));
+        assertTrue(scan(List.of("lol"), "lollipop", false, 1).isEmpty());
+        assertTrue(scan(List.of("lol"), "lollipop", true, 1).isEmpty());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomText() {
+        Random random = new Random(25);
+        String chars = "abAB:) ";
+        for(int round = 0; round < 300; round++) {
+            List<String> words = new ArrayList<>();
+            for(int i = 0; i < 1 + random.nextInt(12); i++) {
+                words.add(randomText(random, chars, 1 + random.nextInt(4)).trim());
+            }
+            words.removeIf(String::isEmpty);
+            String text = randomText(random, chars, random.nextInt(80));
+            int chunk = 1 + random.nextInt(16);
+            for(boolean ignoreCase : new boolean[]{false, true}) {
+                assertEquals(bruteForce(words, text, ignoreCase), scan(words, text, ignoreCase, chunk),
+                        words + " in \"" + text + "\", ignoreCase " + ignoreCase);
+            }
+        }
+    }
+
+    @Test
+    void matchesBruteForceBeyondTheDenseTable() {
+        // Thousands of distinct chars make the transition rows too wide for all shallow states to get one
+        Random random = new Random(26);
+        StringBuilder alphabet = new StringBuilder();
+        for(int c = 0; c < 4000; c++) {
+            alphabet.append((char) (0x4E00 + c));
+        }
+        String chars = alphabet.toString();
+        List<String> words = new ArrayList<>();
+        for(int i = 0; i < 20_000; i++) {
+            words.add(randomText(random, chars, 1 + random.nextInt(3)));
+        }
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 3000; i++) {
+            text.append(random.nextInt(4) == 0 ? words.get(random.nextInt(words.size())) : randomText(random, chars, 1));
+            if(random.nextBoolean()) {
+                text.append(' ');
+            }
+        }
+        assertEquals(bruteForce(words, text.toString(), false), scan(words, text.toString(), false, 64));
+    }
+
+    private static List<String> scan(List<String> words, String text, boolean ignoreCase, int chunk) {
+        List<String> found = new ArrayList<>();
+        SlangAutomaton.Scanner scanner = SlangAutomaton.build(words).scanner(ignoreCase, word -> List.of(word),
+                match -> found.add(match.getStart() + "-" + match.getEnd() + " " + match.getText()));
+        char[] chars = text.toCharArray();
+        for(int offset = 0; offset < chars.length; offset += chunk) {
+            scanner.feed(chars, offset, Math.min(chunk, chars.length - offset));
+        }
+        scanner.finish();
+        return found;
+    }
+
+    /**
+     * Every occurrence found with indexOf, kept where a word starting or ending in a letter or
+     * digit is not running on into one, then picked leftmost first and longest first
+     */
+    private static List<String> bruteForce(List<String> words, String text, boolean ignoreCase) {
+        String haystack = ignoreCase ? text.toLowerCase(Locale.ROOT) : text;
+        List<int[]> hits = new ArrayList<>();
+        for(String word : words) {
+            String needle = ignoreCase ? word.toLowerCase(Locale.ROOT) : word;
+            for(int start = haystack.indexOf(needle); start >= 0; start = haystack.indexOf(needle, start + 1)) {
+                int end = start + needle.length();
+                boolean startsInWord = Character.isLetterOrDigit(needle.charAt(0))
+                        && start > 0 && Character.isLetterOrDigit(text.charAt(start - 1));
+                boolean endsInWord = Character.isLetterOrDigit(needle.charAt(needle.length() - 1))
+                        && end < text.length() && Character.isLetterOrDigit(text.charAt(end));
+                if(!startsInWord && !endsInWord) {
+                    hits.add(new int[]{start, end});
+                }
+            }
+        }
+        hits.sort(Comparator.<int[]>comparingInt(hit -> hit[0]).thenComparingInt(hit -> -hit[1]));
+        List<String> found = new ArrayList<>();
+        int reportedEnd = 0;
+        for(int[] hit : hits) {
+            if(hit[0] >= reportedEnd) {
+                found.add(hit[0] + "-" + hit[1] + " " + text.substring(hit[0], hit[1]));
+                reportedEnd = hit[1];
+            }
+        }
+        return found;
+    }
+
+    private static String randomText(Random random, String chars, int length) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < length; i++) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.slangdictionary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlangDictionaryTest {
+    @TempDir
+    Path dir;
+
+    private SlangDictionary dictionary() {
+        SlangDictionary dictionary = new SlangDictionary(dir);
+        for(int i = 0; i < 20; i++) {
+            dictionary.addSlangWord("F" + i, "a marker of kind " + i);
+        }
+        dictionary.addSlangWord("X", "nothing here");
+        return dictionary;
+    }
+
+    @Test
+    void rankedSearchStartedBeforeAnEditIsNotServedAfterIt() {
+        SlangDictionary dictionary = dictionary();
+
+        // A search reads its candidates, then an edit gets in before it ranks and caches them
+        SlangDictionary.DefinitionQuery before = dictionary.definitionQuery("marker");
+        assertTrue(dictionary.editDefinition("X", 0, "marker marker"));
+        assertFalse(hasWord(dictionary.rankedHits("marker", 10, before), "X"));
+
+        assertTrue(hasWord(dictionary.rankedHits("marker", 10, dictionary.definitionQuery("marker")), "X"));
+        assertEquals(List.of("marker marker"), drain(dictionary.openRankedDefinitionSearch("marker", 10)).get("X"));
+    }
+
+    @Test
+    void searchesAfterAnEditSeeIt() {
+        SlangDictionary dictionary = dictionary();
+        for(int round = 0; round < 6; round++) {
+            boolean on = round % 2 == 0;
+            String definition = on ? "marker marker " + round : "nothing here " + round;
+            // Cache the results of the version before the edit first
+            dictionary.findByDefinition("marker");
+            drain(dictionary.openRankedDefinitionSearch("marker", 10));
+            dictionary.warmCache(1, 10);
+
+            assertTrue(dictionary.editDefinition("X", 0, definition));
+            assertEquals(on, dictionary.findByDefinition("marker").containsKey("X"), "round " + round);
+            assertEquals(on ? List.of(definition) : null,
+                    drain(dictionary.openRankedDefinitionSearch("marker", 10)).get("X"), "round " + round);
+        }
+    }
+
+    private static boolean hasWord(List<Map.Entry<String, List<String>>> hits, String word) {
+        return hits.stream().anyMatch(entry -> entry.getKey().equals(word));
+    }
+
+    private static Map<String, List<String>> drain(DefinitionCursor cursor) {
+        Map<String, List<String>> entries = new HashMap<>();
+        while(cursor.hasNext()) {
+            Map.Entry<String, List<String>> entry = cursor.next();
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        return entries;
+    }
+}
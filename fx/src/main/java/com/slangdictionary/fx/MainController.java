@@ -1,13 +1,28 @@
+package com.slangdictionary.fx;
+
+import com.slangdictionary.*;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
+import javafx.stage.FileChooser;
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 public class MainController {
 
     @FXML private TextField searchSlangField;
     @FXML private TextField searchDefField;
     @FXML private TextArea resultsArea;
+    @FXML private ListView<Map.Entry<String, List<String>>> definitionResultsList;
 
     @FXML private TextField addSlangField;
     @FXML private TextField addDefField;
@@ -17,21 +32,65 @@ public class MainController {
 
     @FXML private TextArea randomArea;
     @FXML private ListView<String> historyListView;
+    @FXML private ListView<String> trendingListView;
     @FXML private Label statusLabel;
 
     private SlangDictionary dictionary;
+    private final SearchExecutor searches = new SearchExecutor();
+    private final ContextMenu suggestionsMenu = new ContextMenu();
+    private DefinitionCursor definitionCursor;
+    private boolean definitionExhausted;
+    private CompletableFuture<?> pendingPage;
+    private boolean importing;
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_TYPOS = 2;
+    private static final String SUGGEST_CHANNEL = "suggest";
+    private static final String DEFINITION_CHANNEL = "definition";
+    private static final String WARM_CHANNEL = "warm";
+    private static final String IMPORT_CHANNEL = "import";
+    private static final int TRENDING = 10;
+    private static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_ROWS = 20;
+    private static final int QUIZ_OPTIONS = 4;
+    private static final DateTimeFormatter HISTORY_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
     @FXML
     public void initialize() {
         dictionary = new SlangDictionary();
         loadDictionary();
+        searchSlangField.textProperty().addListener((obs, oldText, newText) -> showSuggestions(newText));
+        // A new keystroke makes the running definition search stale
+        searchDefField.textProperty().addListener((obs, oldText, newText) -> searches.cancel(DEFINITION_CHANNEL));
+        definitionResultsList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Map.Entry<String, List<String>> entry, boolean empty) {
+                super.updateItem(entry, empty);
+                if(empty || entry == null) {
+                    setText(null);
+                    return;
+                }
+                setText((getIndex() + 1) + ". " + entry.getKey() + "\n   " + String.join("\n   ", entry.getValue()));
+                // Only rendered rows get here, fetch the next page as the user nears the end
+                if(getIndex() >= list.getItems().size() - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
+        searchSlangField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if(!focused) {
+                suggestionsMenu.hide();
+            }
+        });
         updateStatus("Dictionary loaded successfully!");
     }
 
     public void cleanup() {
+        searches.close();
         if (dictionary != null) {
             dictionary.saveDictionary();
             dictionary.saveHistory();
+            dictionary.close();
             System.out.println("Dictionary and history saved!");
         }
     }
@@ -39,19 +98,13 @@ public class MainController {
      * Load dictionary
      */
     private void loadDictionary() {
-        boolean hasDictCache = dictionary.loadDictionary();
-        boolean hasOriginalCache = dictionary.loadOriginalDictionary();
-
-        if(!hasDictCache) {
-            dictionary.loadDictionaryFromFile("slang.txt");
-            dictionary.saveDictionary();
-        }
-
-        if(!hasOriginalCache) {
+        if(!dictionary.loadOriginalDictionary()) {
             dictionary.loadOriginalFromFile("slang.txt");
             dictionary.saveOriginalDictionary();
         }
 
+        // User changes are stored separately and replayed over the original
+        dictionary.loadDictionary();
         dictionary.loadHistory();
     }
 
@@ -73,14 +126,60 @@ public class MainController {
             for(int i = 0; i < definitions.size(); i++) {
                 sb.append("   ").append(definitions.get(i)).append("\n");
             }
-            resultsArea.setText(sb.toString());
+            showResultsText(sb.toString());
             updateStatus("Found " + definitions.size() + " definition(s)");
         } else {
-            resultsArea.setText("Slang word '" + word + "' not found!");
+            StringBuilder sb = new StringBuilder();
+            sb.append("Slang word '").append(word).append("' not found!");
+            List<String> similar = dictionary.suggestSimilar(word, MAX_TYPOS, MAX_SUGGESTIONS);
+            if(!similar.isEmpty()) {
+                sb.append("\n\nDid you mean:\n");
+                for(String suggestion : similar) {
+                    sb.append("   ").append(suggestion).append("\n");
+                }
+            }
+            showResultsText(sb.toString());
             updateStatus("Not found");
         }
     }
 
+    /**
+     * Show slang word suggestions while typing
+     */
+    private void showSuggestions(String text) {
+        String prefix = text.trim();
+        if(prefix.isEmpty()) {
+            searches.cancel(SUGGEST_CHANNEL);
+            suggestionsMenu.hide();
+            return;
+        }
+        onFxThread(searches.submit(SUGGEST_CHANNEL, () -> dictionary.autocomplete(prefix, MAX_SUGGESTIONS)),
+                completions -> showCompletions(prefix, completions));
+    }
+
+    private void showCompletions(String prefix, List<String> completions) {
+        if(completions.isEmpty() || (completions.size() == 1 && completions.get(0).equals(prefix))) {
+            suggestionsMenu.hide();
+            return;
+        }
+
+        List<MenuItem> items = new ArrayList<>();
+        for(String completion : completions) {
+            MenuItem item = new MenuItem(completion);
+            item.setOnAction(event -> {
+                searchSlangField.setText(completion);
+                searchSlangField.positionCaret(completion.length());
+                suggestionsMenu.hide();
+                handleSearchBySlang();
+            });
+            items.add(item);
+        }
+        suggestionsMenu.getItems().setAll(items);
+        if(!suggestionsMenu.isShowing() && searchSlangField.getScene() != null) {
+            suggestionsMenu.show(searchSlangField, Side.BOTTOM, 0, 0);
+        }
+    }
+
     /**
      * Search by definition
      */
@@ -92,27 +191,92 @@ public class MainController {
             return;
         }
 
-        Map<String, List<String>> results = dictionary.searchByDefinition(keyword);
-        if(!results.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Found ").append(results.size()).append(" slang word(s):\n\n");
-
-            int count = 1;
-            for(Map.Entry<String, List<String>> entry : results.entrySet()) {
-                sb.append(count++).append(". ").append(entry.getKey()).append("\n");
-                sb.append("Definition(s):\n");
-                for(String def : entry.getValue()) {
-                    sb.append("   ").append(def).append("\n");
-                }
-                sb.append("\n");
+        updateStatus("Searching for '" + keyword + "'...");
+        definitionCursor = null;
+        // The first page holds the most relevant hits, the list asks for more while scrolling
+        CompletableFuture<ResultPage> search = searches.submit(DEFINITION_CHANNEL, () -> {
+            DefinitionCursor cursor = dictionary.openRankedDefinitionSearch(keyword, PAGE_SIZE);
+            List<Map.Entry<String, List<String>>> entries = cursor.nextPage(PAGE_SIZE);
+            return new ResultPage(cursor, entries, !cursor.hasNext());
+        });
+        pendingPage = search;
+        onFxThread(search, page -> {
+            if(page.entries().isEmpty()) {
+                showResultsText("No slang words found with definition containing '" + keyword + "'!");
+                updateStatus("Not found");
+                return;
             }
+            definitionCursor = page.cursor();
+            definitionExhausted = page.last();
+            definitionResultsList.getItems().setAll(page.entries());
+            definitionResultsList.scrollTo(0);
+            showResultList();
+            updateDefinitionStatus();
+        });
+    }
 
-            resultsArea.setText(sb.toString());
-            updateStatus("Found " + results.size() + " result(s)");
-        } else {
-            resultsArea.setText("No slang words found with definition containing '" + keyword + "'!");
-            updateStatus("Not found");
+    /**
+     * Search the next page of definition results in the background
+     */
+    private void loadNextPage() {
+        DefinitionCursor cursor = definitionCursor;
+        if(cursor == null || definitionExhausted || (pendingPage != null && !pendingPage.isDone())) {
+            return;
         }
+        CompletableFuture<ResultPage> next = searches.submit(DEFINITION_CHANNEL, () -> {
+            List<Map.Entry<String, List<String>>> entries = cursor.nextPage(PAGE_SIZE);
+            return new ResultPage(cursor, entries, !cursor.hasNext());
+        });
+        pendingPage = next;
+        onFxThread(next, page -> {
+            if(page.cursor() != definitionCursor) {
+                return;
+            }
+            definitionExhausted = page.last();
+            definitionResultsList.getItems().addAll(page.entries());
+            updateDefinitionStatus();
+        });
+    }
+
+    private void updateDefinitionStatus() {
+        int shown = definitionResultsList.getItems().size();
+        updateStatus(definitionExhausted ? "Found " + shown + " result(s)" : "Showing first " + shown + " result(s)...");
+    }
+
+    private void showResultsText(String text) {
+        definitionCursor = null;
+        definitionResultsList.getItems().clear();
+        definitionResultsList.setVisible(false);
+        resultsArea.setText(text);
+        resultsArea.setVisible(true);
+    }
+
+    private void showResultList() {
+        resultsArea.clear();
+        resultsArea.setVisible(false);
+        definitionResultsList.setVisible(true);
+    }
+
+    /**
+     * One page of definition results, searched off the FX thread
+     */
+    private record ResultPage(DefinitionCursor cursor, List<Map.Entry<String, List<String>>> entries, boolean last) {
+    }
+
+    /**
+     * Hand the result of a background query to the FX thread, superseded queries are dropped
+     */
+    private <T> void onFxThread(CompletableFuture<T> query, Consumer<T> action) {
+        query.whenComplete((value, error) -> {
+            if(error == null) {
+                Platform.runLater(() -> action.accept(value));
+                return;
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if(!(cause instanceof CancellationException)) {
+                Platform.runLater(() -> updateStatus("Search failed: " + cause.getMessage()));
+            }
+        });
     }
 
     /**
@@ -136,12 +300,60 @@ public class MainController {
                 addSlangField.clear();
                 addDefField.clear();
                 updateStatus("Added: " + slang);
+                warmCache();
             } else {
                 showAlert("Error", "Failed to add slang word!");
             }
         }
     }
 
+    /**
+     * Merge another slang file into the dictionary, in the background since large files take a while.
+     * Only one import runs at a time: cancelling one halfway could interrupt a journal write.
+     */
+    @FXML
+    private void handleImport() {
+        if(importing) {
+            updateStatus("An import is already running");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Slang File");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text files", "*.txt"));
+        File file = chooser.showOpenDialog(addSlangField.getScene().getWindow());
+        if(file == null) {
+            return;
+        }
+
+        importing = true;
+        updateStatus("Importing " + file.getName() + "...");
+        searches.submit(IMPORT_CHANNEL, () -> dictionary.importSlangFile(file.getPath()))
+                .whenComplete((report, error) -> Platform.runLater(() -> {
+                    importing = false;
+                    if(error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        updateStatus("Import failed: " + cause.getMessage());
+                        return;
+                    }
+                    showImportReport(file, report);
+                }));
+    }
+
+    private void showImportReport(File file, ImportReport report) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Imported ").append(file.getName()).append("\n\n");
+        sb.append("Added: ").append(report.getAdded().size()).append("\n");
+        sb.append("Merged: ").append(report.getMerged().size()).append("\n");
+        sb.append("Unchanged: ").append(report.getUnchanged()).append("\n");
+        sb.append("Conflicting (deleted by you, skipped): ").append(report.getConflicting().size());
+        if(report.getMalformed() > 0) {
+            sb.append("\nMalformed lines (skipped): ").append(report.getMalformed());
+        }
+        showAlert("Import", sb.toString());
+        updateStatus("Imported " + file.getName() + " - " + dictionary.getTotalWords() + " words");
+        warmCache();
+    }
+
     /**
      * Handle duplicate slang word
      */
@@ -173,6 +385,7 @@ public class MainController {
                 addSlangField.clear();
                 addDefField.clear();
                 updateStatus("Overridden: " + slang);
+                warmCache();
 
             } else if (response == btnAddDef) {
                 if(dictionary.addDefinitionToWord(slang, newDef)) {
@@ -190,6 +403,7 @@ public class MainController {
                     addSlangField.clear();
                     addDefField.clear();
                     updateStatus("Added definition to: " + slang);
+                    warmCache();
                 } else {
                     showAlert("Error", "Failed to add definition!");
                 }
@@ -225,8 +439,20 @@ public class MainController {
      */
     @FXML
     private void handleRefreshHistory() {
-        List<String> history = dictionary.getSearchHistory();
+        List<String> history = new ArrayList<>();
+        for(HistoryEntry entry : dictionary.getSearchHistory()) {
+            String time = entry.getTimestamp() == 0 ? "" : HISTORY_TIME.format(Instant.ofEpochMilli(entry.getTimestamp())) + "  ";
+            history.add(time + entry);
+        }
         historyListView.getItems().setAll(history);
+
+        List<String> trends = new ArrayList<>();
+        for(QueryType type : QueryType.values()) {
+            for(TrendingTracker.Trend trend : dictionary.getTrending(type, TRENDING)) {
+                trends.add(type.getLabel() + ": " + trend);
+            }
+        }
+        trendingListView.getItems().setAll(trends);
         updateStatus("History refreshed");
     }
 
@@ -237,6 +463,7 @@ public class MainController {
     private void handleClearHistory() {
         dictionary.clearHistory();
         historyListView.getItems().clear();
+        trendingListView.getItems().clear();
         updateStatus("History cleared");
     }
 
@@ -288,6 +515,7 @@ public class MainController {
                 editResultArea.clear();
                 editSlangField.clear();
                 updateStatus("Deleted: " + slang);
+                warmCache();
             } else {
                 showAlert("Error", "Failed to delete!");
             }
@@ -364,6 +592,7 @@ public class MainController {
                 }
 
                 updateStatus("Updated definition for: " + slang);
+                warmCache();
             } else {
                 showAlert("Error", "Failed to update definition!");
             }
@@ -375,29 +604,15 @@ public class MainController {
      */
     @FXML
     private void handleQuizDefinition() {
-        String randomSlang = dictionary.getRandomSlangWord();
-        if(randomSlang == null) {
+        List<QuizQuestion> quiz = dictionary.generateQuiz(QuizQuestion.Type.GUESS_DEFINITION, 1, QUIZ_OPTIONS, true);
+        if(quiz.isEmpty()) {
             showAlert("Error", "Dictionary is empty!");
             return;
         }
-
-        List<String> defs = dictionary.getDictionary().get(randomSlang);
-        String correctDef = defs.get(0);
-
-        List<String> options = new ArrayList<>();
-        options.add(correctDef);
-
-        Random random = new Random();
-        List<String> allWords = new ArrayList<>(dictionary.getDictionary().keySet());
-        while(options.size() < 4) {
-            String randomWord = allWords.get(random.nextInt(allWords.size()));
-            String randomDef = dictionary.getDictionary().get(randomWord).get(0);
-            if(!options.contains(randomDef)) {
-                options.add(randomDef);
-            }
-        }
-
-        Collections.shuffle(options);
+        QuizQuestion question = quiz.get(0);
+        String randomSlang = question.getSlangWord();
+        String correctDef = question.getAnswer();
+        List<String> options = question.getOptions();
 
         ChoiceDialog<String> dialog = new ChoiceDialog<>(options.get(0), options);
         dialog.setTitle("Quiz: Guess Definition");
@@ -418,28 +633,15 @@ public class MainController {
      */
     @FXML
     private void handleQuizSlang() {
-        String randomSlang = dictionary.getRandomSlangWord();
-        if(randomSlang == null) {
+        List<QuizQuestion> quiz = dictionary.generateQuiz(QuizQuestion.Type.GUESS_SLANG, 1, QUIZ_OPTIONS, true);
+        if(quiz.isEmpty()) {
             showAlert("Error", "Dictionary is empty!");
             return;
         }
-
-        List<String> defs = dictionary.getDictionary().get(randomSlang);
-        String definition = defs.get(0);
-
-        List<String> options = new ArrayList<>();
-        options.add(randomSlang);
-
-        Random random = new Random();
-        List<String> allWords = new ArrayList<>(dictionary.getDictionary().keySet());
-        while(options.size() < 4) {
-            String randomWord = allWords.get(random.nextInt(allWords.size()));
-            if(!options.contains(randomWord)) {
-                options.add(randomWord);
-            }
-        }
-
-        Collections.shuffle(options);
+        QuizQuestion question = quiz.get(0);
+        String randomSlang = question.getAnswer();
+        String definition = question.getPrompt();
+        List<String> options = question.getOptions();
 
         ChoiceDialog<String> dialog = new ChoiceDialog<>(options.get(0), options);
         dialog.setTitle("Quiz: Guess Slang Word");
@@ -471,7 +673,7 @@ public class MainController {
 
             searchSlangField.clear();
             searchDefField.clear();
-            resultsArea.clear();
+            showResultsText("");
             addSlangField.clear();
             addDefField.clear();
             editSlangField.clear();
@@ -479,9 +681,20 @@ public class MainController {
             randomArea.clear();
 
             updateStatus("Dictionary reset to original - " + dictionary.getTotalWords() + " words");
+            warmCache();
         }
     }
 
+    /**
+     * An edit dropped the cached results, search the trending keywords again in the background
+     */
+    private void warmCache() {
+        searches.submit(WARM_CHANNEL, () -> {
+            dictionary.warmCache(TRENDING, PAGE_SIZE);
+            return null;
+        });
+    }
+
     /**
      * Show alert
      */
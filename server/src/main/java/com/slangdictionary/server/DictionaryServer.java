@@ -0,0 +1,437 @@
+package com.slangdictionary.server;
+
+import com.slangdictionary.QueryCache;
+import com.slangdictionary.QueryType;
+import com.slangdictionary.SlangDictionary;
+import com.slangdictionary.SlangMatch;
+import com.slangdictionary.TrendingTracker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Headless HTTP front end to a SlangDictionary, answering in JSON.
+ *
+ * Lookups:
+ *   GET  /lookup?word=W          definitions of a slang word, 404 if it has none
+ *   GET  /search?q=K&limit=N     slang words with a definition containing K
+ *   GET  /prefix?q=P&limit=N     slang words starting with P, ignoring case
+ *   GET  /random?count=N         N distinct random slang words with their definitions
+ *   POST /batch?ignoreCase=B     definitions of the slang words among the body's lines, one word per line
+ *   POST /annotate?ignoreCase=B  slang words occurring in the body text, with their char offsets
+ * Admin, with the X-Admin-Token header if the server was given a token, else from loopback clients only:
+ *   POST /admin/add              word, definition
+ *   POST /admin/edit             word, index, definition
+ *   POST /admin/delete           word
+ *   POST /admin/save             compact the journal into the changes file
+ *   GET  /admin/stats            word count, cache counters and trending searches
+ * Parameters come from the query string or, for POST, a form-encoded body.
+ * Lookups count towards the trending searches but are not recorded in the search history.
+ *
+ * Requests run on a bounded pool of worker threads. When the pool and its queue are full the
+ * accepting thread runs the request itself, so the server stops accepting until it catches up.
+ */
+public class DictionaryServer implements Closeable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+    private static final int MAX_BODY = 16 << 20;
+    private static final int TRENDING = 10;
+    // Batches at least this large are resolved in parallel
+    private static final int PARALLEL_BATCH = 10_000;
+    private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+    private static final String DEFAULT_SLANG_FILE = "slang.txt";
+
+    static {
+        // Without TCP_NODELAY small responses wait on delayed ACKs, capping a connection at ~25 requests/s
+        if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final SlangDictionary dictionary;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final String adminToken;
+
+    /**
+     * A handler for one path, returning the status and the value to send as JSON
+     */
+    private interface Endpoint {
+        Response handle(HttpExchange exchange, Map<String, String> params) throws IOException;
+    }
+
+    private record Response(int status, Object body) {
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, Map.of("error", message));
+        }
+    }
+
+    /**
+     * Serve a dictionary on an address, with adminToken null to only take admin requests from loopback clients
+     */
+    public DictionaryServer(SlangDictionary dictionary, InetSocketAddress address, int threads, String adminToken) throws IOException {
+        this.dictionary = dictionary;
+        this.adminToken = adminToken;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), workers(), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+
+        route("/lookup", "GET", false, this::lookup);
+        route("/search", "GET", false, this::search);
+        route("/prefix", "GET", false, this::prefix);
+        route("/random", "GET", false, this::random);
+        route("/batch", "POST", false, this::batch);
+        route("/annotate", "POST", false, this::annotate);
+        route("/admin/add", "POST", true, this::add);
+        route("/admin/edit", "POST", true, this::edit);
+        route("/admin/delete", "POST", true, this::delete);
+        route("/admin/save", "POST", true, this::save);
+        route("/admin/stats", "GET", true, this::stats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stop accepting, give running requests a second to finish, then stop the workers
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Response lookup(HttpExchange exchange, Map<String, String> params) {
+        String word = required(params, "word");
+        dictionary.countSearch(QueryType.SLANG_WORD, word);
+        List<String> definitions = dictionary.lookup(word);
+        return new Response(definitions.isEmpty() ? 404 : 200, word(word, definitions));
+    }
+
+    private Response search(HttpExchange exchange, Map<String, String> params) {
+        String keyword = required(params, "q");
+        int limit = number(params, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+        dictionary.countSearch(QueryType.DEFINITION, keyword);
+        Map<String, List<String>> hits = dictionary.findByDefinition(keyword);
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        for(Map.Entry<String, List<String>> hit : hits.entrySet()) {
+            if(results.size() == limit) {
+                break;
+            }
+            results.put(hit.getKey(), hit.getValue());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", hits.size());
+        body.put("results", results);
+        return Response.ok(body);
+    }
+
+    private Response prefix(HttpExchange exchange, Map<String, String> params) {
+        String prefix = required(params, "q");
+        return Response.ok(dictionary.autocomplete(prefix, number(params, "limit", DEFAULT_LIMIT, MAX_LIMIT)));
+    }
+
+    private Response random(HttpExchange exchange, Map<String, String> params) {
+        int count = number(params, "count", 1, MAX_LIMIT);
+        Map<String, List<String>> words = new LinkedHashMap<>();
+        Map<String, List<String>> current = dictionary.getDictionary();
+        for(String word : dictionary.sampleDistinct(count)) {
+            List<String> definitions = current.get(word);
+            if(definitions != null) {
+                words.put(word, definitions);
+            }
+        }
+        return Response.ok(words);
+    }
+
+    private Response batch(HttpExchange exchange, Map<String, String> params) throws IOException {
+        boolean ignoreCase = Boolean.parseBoolean(params.get("ignoreCase"));
+        List<String> words = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(body(exchange), StandardCharsets.UTF_8))) {
+            String word;
+            while((word = reader.readLine()) != null) {
+                if(!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return Response.ok(dictionary.lookupAll(words, ignoreCase, words.size() >= PARALLEL_BATCH));
+    }
+
+    private Response annotate(HttpExchange exchange, Map<String, String> params) throws IOException {
+        boolean ignoreCase = Boolean.parseBoolean(params.get("ignoreCase"));
+        List<Map<String, Object>> matches = new ArrayList<>();
+        try(Reader reader = new InputStreamReader(body(exchange), StandardCharsets.UTF_8)) {
+            dictionary.annotate(reader, ignoreCase, match -> matches.add(match(match)));
+        }
+        return Response.ok(matches);
+    }
+
+    private Response add(HttpExchange exchange, Map<String, String> params) {
+        String word = required(params, "word");
+        if(!dictionary.addSlangWord(word, required(params, "definition"))) {
+            return Response.error(409, "Slang word already exists: " + word);
+        }
+        return Response.ok(word(word, dictionary.getDictionary().get(word)));
+    }
+
+    private Response edit(HttpExchange exchange, Map<String, String> params) {
+        String word = required(params, "word");
+        required(params, "index");
+        int index = number(params, "index", 0, Integer.MAX_VALUE);
+        if(!dictionary.editDefinition(word, index, required(params, "definition"))) {
+            return Response.error(404, "No definition " + index + " for slang word: " + word);
+        }
+        return Response.ok(word(word, dictionary.getDictionary().get(word)));
+    }
+
+    private Response delete(HttpExchange exchange, Map<String, String> params) {
+        String word = required(params, "word");
+        if(!dictionary.deleteSlangWord(word)) {
+            return Response.error(404, "No such slang word: " + word);
+        }
+        return Response.ok(Map.of("deleted", word));
+    }
+
+    private Response save(HttpExchange exchange, Map<String, String> params) {
+        dictionary.saveDictionary();
+        return Response.ok(Map.of("saved", true));
+    }
+
+    private Response stats(HttpExchange exchange, Map<String, String> params) {
+        QueryCache.Stats cache = dictionary.getCacheStats();
+        Map<String, Object> cacheBody = new LinkedHashMap<>();
+        cacheBody.put("hits", cache.getHits());
+        cacheBody.put("misses", cache.getMisses());
+        cacheBody.put("hitRate", cache.getHitRate());
+        cacheBody.put("evictions", cache.getEvictions());
+        cacheBody.put("invalidations", cache.getInvalidations());
+        cacheBody.put("entries", cache.getEntries());
+        cacheBody.put("weight", cache.getWeight());
+
+        Map<String, Object> trending = new LinkedHashMap<>();
+        for(QueryType type : QueryType.values()) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for(TrendingTracker.Trend trend : dictionary.getTrending(type, TRENDING)) {
+                counts.put(trend.getQuery(), trend.getCount());
+            }
+            trending.put(type.name(), counts);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("words", dictionary.getTotalWords());
+        body.put("cache", cacheBody);
+        body.put("trending", trending);
+        return Response.ok(body);
+    }
+
+    /**
+     * A word with its definitions, which are null if it was deleted in the meantime
+     */
+    private static Map<String, Object> word(String word, List<String> definitions) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("word", word);
+        body.put("definitions", definitions);
+        return body;
+    }
+
+    private static Map<String, Object> match(SlangMatch match) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("start", match.getStart());
+        body.put("end", match.getEnd());
+        body.put("word", match.getWord());
+        body.put("text", match.getText());
+        body.put("definitions", match.getDefinitions());
+        return body;
+    }
+
+    private void route(String path, String method, boolean admin, Endpoint endpoint) {
+        server.createContext(path, exchange -> {
+            Response response;
+            try {
+                if(!exchange.getRequestURI().getPath().equals(path)) {
+                    response = Response.error(404, "Not found");
+                } else if(!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    response = Response.error(405, "Use " + method);
+                } else if(admin && adminToken != null && !adminToken.equals(exchange.getRequestHeaders().getFirst(ADMIN_TOKEN_HEADER))) {
+                    response = Response.error(403, "Missing or wrong " + ADMIN_TOKEN_HEADER);
+                } else if(admin && adminToken == null && !exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                    response = Response.error(403, "Admin endpoints are only open to localhost without an admin token");
+                } else {
+                    Map<String, String> params = parameters(exchange.getRequestURI().getRawQuery());
+                    if(method.equals("POST") && admin) {
+                        params.putAll(parameters(new String(body(exchange).readAllBytes(), StandardCharsets.UTF_8)));
+                    }
+                    response = endpoint.handle(exchange, params);
+                }
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (BodyTooLargeException e) {
+                response = Response.error(413, e.getMessage());
+            } catch (RuntimeException | IOException e) {
+                System.out.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                response = Response.error(500, "Internal error");
+            }
+            send(exchange, response);
+        });
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        exchange.close();
+    }
+
+    /**
+     * The request body, failing once more than MAX_BODY bytes have been read
+     */
+    private static InputStream body(HttpExchange exchange) {
+        return new FilterInputStream(exchange.getRequestBody()) {
+            private long read;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                count(b < 0 ? 0 : 1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                count(Math.max(n, 0));
+                return n;
+            }
+
+            private void count(int n) throws IOException {
+                read += n;
+                if(read > MAX_BODY) {
+                    throw new BodyTooLargeException("Request body larger than " + MAX_BODY + " bytes");
+                }
+            }
+        };
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private static Map<String, String> parameters(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if(encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for(String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if(value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int number(Map<String, String> params, String name, int defaultValue, int max) {
+        String value = params.get(name);
+        if(value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if(number < 0 || number > max) {
+                throw new IllegalArgumentException(name + " must be between 0 and " + max);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static ThreadFactory workers() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "dictionary-http");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Serve the dictionary saved in a data directory, loading the original from slang.txt the first time.
+     * Options: --host (loopback by default), --port, --threads, --data, --slang, --admin-token (or SLANG_ADMIN_TOKEN).
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            if(!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        String host = options.getOrDefault("host", InetAddress.getLoopbackAddress().getHostAddress());
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(2 * Runtime.getRuntime().availableProcessors())));
+        Path data = Paths.get(options.getOrDefault("data", ""));
+        String adminToken = options.getOrDefault("admin-token", System.getenv("SLANG_ADMIN_TOKEN"));
+
+        SlangDictionary dictionary = new SlangDictionary(data);
+        if(!dictionary.loadOriginalDictionary()) {
+            dictionary.loadOriginalFromFile(options.getOrDefault("slang", DEFAULT_SLANG_FILE));
+            dictionary.saveOriginalDictionary();
+        }
+        dictionary.loadDictionary();
+        // Indexes are built by the first query, do it before taking requests
+        dictionary.autocomplete("a", 1);
+
+        DictionaryServer server = new DictionaryServer(dictionary, new InetSocketAddress(host, port), threads, adminToken);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            dictionary.saveDictionary();
+            dictionary.close();
+        }, "dictionary-shutdown"));
+        server.start();
+        System.out.println("Serving " + dictionary.getTotalWords() + " slang words on http://" + host + ":" + server.getAddress().getPort()
+                + (adminToken == null ? " (admin endpoints open to localhost only)" : ""));
+    }
+}
@@ -0,0 +1,73 @@
+package com.slangdictionary.server;
+
+import java.util.*;
+
+/**
+ * Just enough JSON output for the server's responses: strings, numbers, lists and maps of those
+ */
+final class Json {
+    private Json() {
+    }
+
+    static String write(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(sb, value);
+        return sb.toString();
+    }
+
+    static void write(StringBuilder sb, Object value) {
+        if(value == null) {
+            sb.append("null");
+        } else if(value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if(value instanceof Map<?, ?> map) {
+            sb.append('{');
+            boolean first = true;
+            for(Map.Entry<?, ?> entry : map.entrySet()) {
+                if(!first) {
+                    sb.append(',');
+                }
+                first = false;
+                string(sb, String.valueOf(entry.getKey()));
+                sb.append(':');
+                write(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if(value instanceof Collection<?> collection) {
+            sb.append('[');
+            boolean first = true;
+            for(Object element : collection) {
+                if(!first) {
+                    sb.append(',');
+                }
+                first = false;
+                write(sb, element);
+            }
+            sb.append(']');
+        } else {
+            string(sb, value.toString());
+        }
+    }
+
+    private static void string(StringBuilder sb, String text) {
+        sb.append('"');
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch(c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if(c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,285 @@
+package com.slangdictionary.server;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of a running DictionaryServer: a number of keep-alive connections each send
+ * one GET after another for a while, then throughput and latency percentiles are printed.
+ * Slang words to look up are fetched from the server's random endpoint first.
+ *
+ * Requests are written straight to a socket, so the generator itself stays cheap enough
+ * to saturate a server running on the same machine.
+ *
+ * Options: --url (http://localhost:8080), --connections (32), --seconds (10), --warmup (3),
+ * --endpoint lookup, prefix, search or mixed (lookup).
+ */
+public class LoadGenerator {
+    private static final int WORDS = 1000;
+    // Latency samples kept per connection, a uniform sample of all requests beyond that
+    private static final int SAMPLES = 100_000;
+
+    private final String host;
+    private final int port;
+    private final String endpoint;
+    private final List<String> words;
+
+    private LoadGenerator(String host, int port, String endpoint, List<String> words) {
+        this.host = host;
+        this.port = port;
+        this.endpoint = endpoint;
+        this.words = words;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "32"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        String endpoint = options.getOrDefault("endpoint", "lookup");
+
+        String host = url.getHost();
+        int port = url.getPort() < 0 ? 80 : url.getPort();
+        List<String> words;
+        try(Connection connection = new Connection(host, port)) {
+            words = parseWords(connection.get("/random?count=" + WORDS));
+        }
+        LoadGenerator generator = new LoadGenerator(host, port, endpoint, words);
+        if(warmup > 0) {
+            generator.run(connections, warmup);
+        }
+        generator.run(connections, seconds).print(connections, seconds);
+    }
+
+    /**
+     * The keys of the random endpoint's answer, {"word":[...],...}
+     */
+    private static List<String> parseWords(String body) throws IOException {
+        List<String> words = new ArrayList<>();
+        int depth = 0;
+        for(int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if(c == '[') {
+                depth++;
+            } else if(c == ']') {
+                depth--;
+            } else if(c == '"' && depth == 0) {
+                StringBuilder word = new StringBuilder();
+                for(i++; body.charAt(i) != '"'; i++) {
+                    if(body.charAt(i) == '\\') {
+                        char escaped = body.charAt(++i);
+                        word.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped == 'r' ? '\r' : escaped);
+                    } else {
+                        word.append(body.charAt(i));
+                    }
+                }
+                words.add(word.toString());
+            }
+        }
+        if(words.isEmpty()) {
+            throw new IOException("The server has no slang words");
+        }
+        return words;
+    }
+
+    private Result run(int connections, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Result result = new Result();
+        List<Thread> threads = new ArrayList<>();
+        for(int c = 0; c < connections; c++) {
+            Thread thread = new Thread(() -> result.merge(load(deadline)), "load-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        return result;
+    }
+
+    private Result load(long deadline) {
+        Result result = new Result();
+        Random random = new Random();
+        long[] samples = new long[SAMPLES];
+        int sampled = 0;
+        long seen = 0;
+        Connection connection = null;
+        while(System.nanoTime() < deadline) {
+            String path = path(random);
+            long start = System.nanoTime();
+            int status;
+            try {
+                if(connection == null) {
+                    connection = new Connection(host, port);
+                }
+                status = connection.send(path);
+            } catch (IOException e) {
+                status = -1;
+                connection = close(connection);
+            }
+            long latency = System.nanoTime() - start;
+            result.requests.incrementAndGet();
+            // A missing word is a valid answer, anything else outside 2xx is not
+            if(status < 200 || (status >= 300 && status != 404)) {
+                result.errors.incrementAndGet();
+            }
+            seen++;
+            if(sampled < SAMPLES) {
+                samples[sampled++] = latency;
+            } else {
+                long slot = (long) (random.nextDouble() * seen);
+                if(slot < SAMPLES) {
+                    samples[(int) slot] = latency;
+                }
+            }
+        }
+        close(connection);
+        result.latencies.add(Arrays.copyOf(samples, sampled));
+        return result;
+    }
+
+    private static Connection close(Connection connection) {
+        if(connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+                // Already broken
+            }
+        }
+        return null;
+    }
+
+    private String path(Random random) {
+        String word = words.get(random.nextInt(words.size()));
+        String kind = endpoint.equals("mixed") ? pickMixed(random) : endpoint;
+        return switch(kind) {
+            case "prefix" -> "/prefix?limit=10&q=" + encode(word.substring(0, Math.min(2, word.length())));
+            case "search" -> "/search?limit=20&q=" + encode(word);
+            default -> "/lookup?word=" + encode(word);
+        };
+    }
+
+    /**
+     * 80% lookups, 15% prefixes and 5% definition searches
+     */
+    private static String pickMixed(Random random) {
+        int roll = random.nextInt(100);
+        return roll < 80 ? "lookup" : roll < 95 ? "prefix" : "search";
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One keep-alive HTTP/1.1 connection, for responses that carry a Content-Length
+     */
+    private static final class Connection implements Closeable {
+        private final String host;
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+        private byte[] body = new byte[0];
+
+        Connection(String host, int port) throws IOException {
+            this.host = host;
+            this.socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            this.in = new BufferedInputStream(socket.getInputStream());
+        }
+
+        /**
+         * Send a GET and read the response, returning its status
+         */
+        int send(String path) throws IOException {
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: " + host + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            String statusLine = line();
+            String[] parts = statusLine.split(" ", 3);
+            if(parts.length < 2) {
+                throw new IOException("Bad status line: " + statusLine);
+            }
+            int length = -1;
+            String header;
+            while(!(header = line()).isEmpty()) {
+                int colon = header.indexOf(':');
+                if(colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    length = Integer.parseInt(header.substring(colon + 1).trim());
+                }
+            }
+            if(length < 0) {
+                throw new IOException("Response without a Content-Length");
+            }
+            body = in.readNBytes(length);
+            if(body.length < length) {
+                throw new EOFException();
+            }
+            return Integer.parseInt(parts[1]);
+        }
+
+        String get(String path) throws IOException {
+            int status = send(path);
+            if(status != 200) {
+                throw new IOException("HTTP " + status + " for " + path);
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        private String line() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while((c = in.read()) != '\n') {
+                if(c < 0) {
+                    throw new EOFException();
+                }
+                if(c != '\r') {
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static final class Result {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        void merge(Result other) {
+            requests.addAndGet(other.requests.get());
+            errors.addAndGet(other.errors.get());
+            latencies.addAll(other.latencies);
+        }
+
+        void print(int connections, int seconds) {
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%d requests in %ds over %d connections: %.0f req/s, %d errors%n",
+                    requests.get(), seconds, connections, requests.get() / (double) seconds, errors.get());
+            if(all.length > 0) {
+                System.out.printf("latency p50 %s, p90 %s, p99 %s, p99.9 %s, max %s%n",
+                        millis(all, 0.5), millis(all, 0.9), millis(all, 0.99), millis(all, 0.999), millis(all, 1.0));
+            }
+        }
+
+        private static String millis(long[] sorted, double quantile) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return String.format("%.3f ms", sorted[Math.max(0, index)] / 1e6);
+        }
+    }
+}